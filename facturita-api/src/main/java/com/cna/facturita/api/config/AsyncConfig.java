@@ -0,0 +1,26 @@
+package com.cna.facturita.api.config;
+
+import com.cna.facturita.multitenant.context.TenantContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+
+/**
+ * Configuración de ejecución asíncrona.
+ * <p>
+ * Con {@code spring.threads.virtual.enabled=true} Spring Boot atiende los
+ * requests de Tomcat y el executor de {@code @Async} con hilos virtuales. El
+ * {@link TaskDecorator} definido aquí se aplica a ese executor y propaga el
+ * tenant y el contexto de seguridad del hilo que encola la tarea.
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+
+    @Bean
+    public TaskDecorator tenantContextTaskDecorator() {
+        return task -> new DelegatingSecurityContextRunnable(TenantContext.wrap(task));
+    }
+}
@@ -9,6 +9,7 @@ import com.cna.facturita.core.loader.tenant.ProvinciaDataLoader;
 import com.cna.facturita.core.loader.tenant.TipoDocumentoDataLoader;
 import com.cna.facturita.core.loader.tenant.UsuarioDataLoader;
 //import com.cna.facturita.core.loader.tenant.C
+import com.cna.facturita.multitenant.config.MultiTenantDataSourceProvider;
 import com.cna.facturita.multitenant.context.TenantContext;
 
 // import com.cna.facturita.core.repository.EmpresaRepository;
@@ -39,6 +40,8 @@ public class MultiTenantDataLoader {
     private final TipoDocumentoDataLoader tipoDocumentoDataLoader;
     private final UsuarioDataLoader usuarioDataLoader;
     private final JdbcTemplate jdbcTemplate;
+    private final MultiTenantDataSourceProvider dataSourceProvider;
+    private final ReferenceCatalogMigrator referenceCatalogMigrator;
 
     /**
      * Crea usuarios específicos para cada tenant/empresa
@@ -47,14 +50,21 @@ public class MultiTenantDataLoader {
     log.info("[MultiTenantDataLoader] Iniciando carga de datos iniciales para tenants...");
     log.info("[MultiTenantDataLoader] Esquema actual: {}", TenantContext.getCurrentTenant());
 
-    // Ejecutar DDL dinámico para el esquema actual
-    ejecutarScriptDDL("db/ddl/schema_tenant.sql", TenantContext.getCurrentTenant());
+    // Esquema compartido de catálogos (idempotente) y DDL dinámico del tenant
+    String tenant = TenantContext.getCurrentTenant();
+    ejecutarScriptDDL("db/ddl/schema_referencia.sql", tenant);
+    ejecutarScriptDDL("db/ddl/schema_tenant.sql", tenant);
 
-    // Cambiar el search_path al esquema del tenant
-    String setSearchPath = String.format("SET search_path TO %s;", TenantContext.getCurrentTenant());
+    // Tenants anteriores al esquema de referencia: mover sus copias locales
+    boolean catalogosCompartidos = referenceCatalogMigrator.migrar(tenant);
+
+    // Cambiar el search_path al esquema del tenant (y el de referencia detrás)
+    String setSearchPath = "SET search_path TO " + dataSourceProvider.searchPath(TenantContext.getCurrentTenant());
     log.info("[MultiTenantDataLoader] Ejecutando: {}", setSearchPath);
     jdbcTemplate.execute(setSearchPath);
 
+    // Los catálogos se resuelven por search_path al esquema de referencia: solo
+    // se cargan con el primer tenant, los demás encuentran datos y los omiten
     tipoDocumentoDataLoader.cargaInicial();
     departamentoDataLoader.cargaInicial();
     provinciaDataLoader.cargaInicial();
@@ -63,6 +73,13 @@ public class MultiTenantDataLoader {
     clienteDataLoader.cargaInicial();
     usuarioDataLoader.cargaInicial();
 
+    // Vistas con los overrides del tenant; van después de la carga porque los
+    // loaders escriben a través del search_path en las tablas compartidas
+    String referencia = dataSourceProvider.getReferenceSchema();
+    if (catalogosCompartidos && !referencia.isEmpty() && !referencia.equals(tenant)) {
+        ejecutarScriptDDL("db/ddl/schema_tenant_catalogos.sql", tenant);
+    }
+
     log.info("[MultiTenantDataLoader] Carga de datos iniciales para tenants completada.");
     }
 
@@ -71,7 +88,10 @@ public class MultiTenantDataLoader {
             log.info("[MultiTenantDataLoader] DDL ejecutando para tenant: {}", tenantName);
             String sql = Files.lines(new ClassPathResource(scriptPath).getFile().toPath())
                 .collect(Collectors.joining("\n"))
-                .replace("${tenant}", tenantName);
+                .replace("${tenant}", tenantName)
+                // Sin esquema de referencia configurado, los catálogos quedan en el del tenant
+                .replace("${referencia}", dataSourceProvider.getReferenceSchema().isEmpty()
+                        ? tenantName : dataSourceProvider.getReferenceSchema());
             log.info("[MultiTenantDataLoader] SQL generado para tenant {}:\n{}", tenantName, sql);
             for (String statement : sql.split(";")) {
                 if (!statement.trim().isEmpty()) {
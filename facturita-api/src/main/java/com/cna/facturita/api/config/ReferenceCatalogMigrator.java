@@ -0,0 +1,172 @@
+package com.cna.facturita.api.config;
+
+import com.cna.facturita.multitenant.config.MultiTenantDataSourceProvider;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Migra un tenant creado antes del esquema de referencia: sus catálogos
+ * locales (tipos de documento, ubigeo, países) quedaban antes en el
+ * {@code search_path} y sus claves foráneas apuntaban a ellos.
+ * <p>
+ * En una sola transacción: completa el esquema de referencia con las filas
+ * locales que falten, guarda como override del tenant los nombres/estados
+ * que difieren en los catálogos que lo admiten, reapunta las FKs del tenant
+ * al esquema de referencia y elimina las copias locales. Si algo falla no se
+ * aplica nada y el tenant queda como estaba. Un tenant sin copias locales no
+ * hace nada más que una consulta al catálogo del sistema.
+ */
+@Slf4j
+@Component
+public class ReferenceCatalogMigrator {
+
+    /** Catálogos en orden de dependencia (padres primero). */
+    private static final List<Catalogo> CATALOGOS = List.of(
+            new Catalogo("t_tipos_documento_identidad", "id, nombre, estado", true),
+            new Catalogo("t_paises", "id, nombre, estado", true),
+            new Catalogo("t_departamentos", "id, nombre, estado", false),
+            new Catalogo("t_provincias", "id, departamento_id, nombre, estado", false),
+            new Catalogo("t_distritos", "id, provincia_id, nombre, estado", false));
+
+    private static final String TABLAS_IN = "'t_tipos_documento_identidad', 't_paises', 't_departamentos', "
+            + "'t_provincias', 't_distritos'";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MultiTenantDataSourceProvider dataSourceProvider;
+    private final TransactionTemplate transactionTemplate;
+
+    public ReferenceCatalogMigrator(JdbcTemplate jdbcTemplate, MultiTenantDataSourceProvider dataSourceProvider) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSourceProvider = dataSourceProvider;
+        // Transacción JDBC propia: el DDL se aplica completo o no se aplica
+        this.transactionTemplate = new TransactionTemplate(
+                new DataSourceTransactionManager(jdbcTemplate.getDataSource()));
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Migra los catálogos locales del tenant, si los tiene.
+     *
+     * @return {@code true} si el tenant no tiene (o ya no tiene) copias locales
+     */
+    public boolean migrar(String tenant) {
+        String referencia = dataSourceProvider.getReferenceSchema();
+        if (referencia.isEmpty() || referencia.equals(tenant)) {
+            return true;
+        }
+        Set<String> locales = new HashSet<>(jdbcTemplate.queryForList("""
+                SELECT table_name FROM information_schema.tables
+                WHERE table_schema = ? AND table_type = 'BASE TABLE'
+                  AND table_name IN (""" + TABLAS_IN + ")", String.class, tenant));
+        if (locales.isEmpty()) {
+            return true;
+        }
+
+        log.info("[ReferenceCatalogMigrator] Migrando catálogos locales {} del tenant {} al esquema {}",
+                locales, tenant, referencia);
+        try {
+            transactionTemplate.executeWithoutResult(status -> migrar(
+                    MultiTenantDataSourceProvider.quoteSchema(tenant),
+                    MultiTenantDataSourceProvider.quoteSchema(referencia), tenant, locales));
+            log.info("[ReferenceCatalogMigrator] Catálogos del tenant {} migrados", tenant);
+            return true;
+        } catch (RuntimeException e) {
+            log.error("[ReferenceCatalogMigrator] No se pudo migrar los catálogos del tenant {}: {}",
+                    tenant, e.getMessage());
+            return false;
+        }
+    }
+
+    private void migrar(String esquema, String referencia, String tenant, Set<String> locales) {
+        for (Catalogo catalogo : CATALOGOS) {
+            if (!locales.contains(catalogo.tabla())) {
+                continue;
+            }
+            String local = esquema + '.' + catalogo.tabla();
+            String compartido = referencia + '.' + catalogo.tabla();
+
+            // Los catálogos nacionales son iguales en todos los tenants: el
+            // primero que se migra llena el esquema de referencia
+            int agregadas = jdbcTemplate.update("INSERT INTO " + compartido + " (" + catalogo.columnas() + ") "
+                    + "SELECT " + catalogo.columnas() + " FROM " + local + " ON CONFLICT (id) DO NOTHING");
+
+            String distintas = " FROM " + local + " l JOIN " + compartido + " r ON r.id = l.id "
+                    + "WHERE l.nombre IS DISTINCT FROM r.nombre OR l.estado IS DISTINCT FROM r.estado";
+            int overrides = 0;
+            if (catalogo.sobrescribible()) {
+                overrides = jdbcTemplate.update("INSERT INTO " + esquema + '.' + catalogo.tabla() + "_override "
+                        + "(id, nombre, estado) SELECT l.id, l.nombre, l.estado" + distintas
+                        + " ON CONFLICT (id) DO NOTHING");
+            } else {
+                Integer diferencias = jdbcTemplate.queryForObject("SELECT count(*)" + distintas, Integer.class);
+                if (diferencias != null && diferencias > 0) {
+                    log.warn("[ReferenceCatalogMigrator] {} filas de {} del tenant {} difieren del catálogo "
+                            + "compartido y se descartan", diferencias, catalogo.tabla(), tenant);
+                }
+            }
+            log.info("[ReferenceCatalogMigrator] {}: {} filas nuevas en referencia, {} overrides del tenant {}",
+                    catalogo.tabla(), agregadas, overrides, tenant);
+        }
+
+        reapuntarClavesForaneas(esquema, referencia, tenant);
+
+        // Hijos primero; sin CASCADE: una dependencia desconocida aborta la migración
+        for (int i = CATALOGOS.size() - 1; i >= 0; i--) {
+            String tabla = CATALOGOS.get(i).tabla();
+            if (locales.contains(tabla)) {
+                jdbcTemplate.execute("DROP TABLE " + esquema + '.' + tabla);
+            }
+        }
+    }
+
+    /**
+     * Recrea, apuntando al esquema de referencia, las FKs de las tablas del
+     * tenant que referencian sus catálogos locales (t_clientes).
+     */
+    private void reapuntarClavesForaneas(String esquema, String referencia, String tenant) {
+        List<Map<String, Object>> claves = jdbcTemplate.queryForList("""
+                SELECT rel.relname AS tabla, con.conname AS restriccion, att.attname AS columna,
+                       ref.relname AS catalogo, refatt.attname AS columna_ref
+                FROM pg_constraint con
+                JOIN pg_class rel ON rel.oid = con.conrelid
+                JOIN pg_class ref ON ref.oid = con.confrelid
+                JOIN pg_namespace ns ON ns.oid = ref.relnamespace
+                JOIN pg_attribute att ON att.attrelid = con.conrelid AND att.attnum = con.conkey[1]
+                JOIN pg_attribute refatt ON refatt.attrelid = con.confrelid AND refatt.attnum = con.confkey[1]
+                WHERE con.contype = 'f' AND ns.nspname = ? AND rel.relnamespace = ns.oid
+                  AND ref.relname IN (""" + TABLAS_IN + ") AND rel.relname NOT IN (" + TABLAS_IN + ")",
+                tenant);
+        for (Map<String, Object> clave : claves) {
+            String tabla = esquema + '.' + quote(clave.get("tabla"));
+            String restriccion = quote(clave.get("restriccion"));
+            jdbcTemplate.execute("ALTER TABLE " + tabla + " DROP CONSTRAINT " + restriccion);
+            jdbcTemplate.execute("ALTER TABLE " + tabla + " ADD CONSTRAINT " + restriccion
+                    + " FOREIGN KEY (" + quote(clave.get("columna")) + ") REFERENCES "
+                    + referencia + '.' + quote(clave.get("catalogo")) + " (" + quote(clave.get("columna_ref")) + ")");
+            log.info("[ReferenceCatalogMigrator] FK {} de {} reapuntada a {}.{}", clave.get("restriccion"),
+                    clave.get("tabla"), referencia, clave.get("catalogo"));
+        }
+    }
+
+    private static String quote(Object identificador) {
+        return '"' + identificador.toString().replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * @param tabla          Nombre de la tabla (igual en el tenant y en referencia)
+     * @param columnas       Columnas a copiar
+     * @param sobrescribible Si el tenant puede sobrescribir nombre/estado
+     *                       ({@code <tabla>_override})
+     */
+    private record Catalogo(String tabla, String columnas, boolean sobrescribible) {
+    }
+}
@@ -0,0 +1,13 @@
+package com.cna.facturita.api.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita las tareas {@code @Scheduled} (por ejemplo el recálculo del
+ * ranking de popularidad de planes).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
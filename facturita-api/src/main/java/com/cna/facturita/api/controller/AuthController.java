@@ -4,14 +4,19 @@ import com.cna.facturita.api.exception.AuthenticationException;
 import com.cna.facturita.api.service.AuthService;
 import com.cna.facturita.dto.form.UsuarioForm;
 import com.cna.facturita.dto.request.auth.LoginRequest;
+import com.cna.facturita.dto.request.auth.RefreshTokenRequest;
 import com.cna.facturita.dto.response.auth.LoginResponse;
 import com.cna.facturita.core.model.Usuario;
 import com.cna.facturita.core.repository.UsuarioRepository;
+import com.cna.facturita.security.crypto.PasswordHashingBusyException;
+import com.cna.facturita.security.ratelimit.LoginRateLimitedException;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -36,11 +41,21 @@ public class AuthController {
     private final PasswordEncoder passwordEncoder;
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody LoginRequest request) {
+    public ResponseEntity<?> login(@RequestBody LoginRequest request, HttpServletRequest httpRequest) {
         log.debug("[AuthController] -> [login] Ejecutando login...");
         try {
-            LoginResponse response = authService.login(request);
+            LoginResponse response = authService.login(request, httpRequest.getRemoteAddr());
             return ResponseEntity.ok(response);
+        } catch (LoginRateLimitedException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", e.getMessage());
+            errorResponse.put("error", "TOO_MANY_ATTEMPTS");
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(errorResponse);
+        } catch (PasswordHashingBusyException e) {
+            return servicioOcupado();
         } catch (AuthenticationException e) {
             log.error("[AuthController] -> [login] Error de autenticación: {}", e.getMessage());
             Map<String, Object> errorResponse = new HashMap<>();
@@ -58,6 +73,33 @@ public class AuthController {
         }
     }
 
+    /**
+     * Canjea un refresh token por un nuevo par de tokens. No verifica la
+     * contraseña: el refresh token se rota en cada uso.
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@Valid @RequestBody RefreshTokenRequest request) {
+        try {
+            return ResponseEntity.ok(authService.refresh(request.getRefreshToken()));
+        } catch (AuthenticationException e) {
+            log.debug("[AuthController] -> [refresh] {}", e.getMessage());
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", e.getMessage());
+            errorResponse.put("error", "INVALID_REFRESH_TOKEN");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(errorResponse);
+        }
+    }
+
+    /**
+     * Revoca la sesión asociada al refresh token.
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@Valid @RequestBody RefreshTokenRequest request) {
+        authService.logout(request.getRefreshToken());
+        return ResponseEntity.ok(new MensajeResponse(true, "Sesión cerrada"));
+    }
+
     /**
      * Endpoint público para registrar el primer usuario del sistema.
      * Este endpoint no requiere autenticación.
@@ -98,6 +140,24 @@ public class AuthController {
         return ResponseEntity.ok(new TieneUsuariosResponse(tieneUsuarios));
     }
 
+    /**
+     * El hashing de contraseñas está saturado (por ejemplo en el registro).
+     */
+    @ExceptionHandler(PasswordHashingBusyException.class)
+    public ResponseEntity<?> handlePasswordHashingBusy(PasswordHashingBusyException e) {
+        return servicioOcupado();
+    }
+
+    private static ResponseEntity<?> servicioOcupado() {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("success", false);
+        errorResponse.put("message", "Servicio ocupado, intente nuevamente en unos segundos");
+        errorResponse.put("error", "SERVICE_BUSY");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(errorResponse);
+    }
+
     // DTOs de respuesta
     record MensajeResponse(boolean success, String message) {
     }
@@ -0,0 +1,94 @@
+package com.cna.facturita.api.controller;
+
+import com.cna.facturita.api.service.PlanResponseCache;
+import com.cna.facturita.api.service.PlanResponseCache.PlanResponseCacheStats;
+import com.cna.facturita.core.service.PlanService;
+import com.cna.facturita.core.service.PlanService.PlanCacheStats;
+import com.cna.facturita.security.crypto.BoundedBCryptPasswordEncoder;
+import com.cna.facturita.security.crypto.BoundedBCryptPasswordEncoder.HashingStats;
+import com.cna.facturita.security.ratelimit.LoginRateLimiter;
+import com.cna.facturita.security.ratelimit.LoginRateLimiter.LoginRateLimiterStats;
+import com.cna.facturita.security.service.CustomUserDetailsService;
+import com.cna.facturita.security.service.CustomUserDetailsService.UserCacheStats;
+import com.cna.facturita.security.service.JwtService;
+import com.cna.facturita.security.service.JwtService.ClaimsCacheStats;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Endpoints de monitoreo de los caches de la capa de seguridad y de planes.
+ * Solo accesibles con rol {@code ADMIN} (usuarios del tenant administrador),
+ * ver {@code SecurityConfig}.
+ */
+@RestController
+@RequestMapping("/api/monitoreo")
+public class MonitoreoController {
+
+    private final CustomUserDetailsService userDetailsService;
+    private final JwtService jwtService;
+    private final BoundedBCryptPasswordEncoder passwordEncoder;
+    private final LoginRateLimiter loginRateLimiter;
+    private final PlanService planService;
+    private final PlanResponseCache planResponseCache;
+
+    public MonitoreoController(CustomUserDetailsService userDetailsService, JwtService jwtService,
+            BoundedBCryptPasswordEncoder passwordEncoder, LoginRateLimiter loginRateLimiter,
+            PlanService planService, PlanResponseCache planResponseCache) {
+        this.userDetailsService = userDetailsService;
+        this.jwtService = jwtService;
+        this.passwordEncoder = passwordEncoder;
+        this.loginRateLimiter = loginRateLimiter;
+        this.planService = planService;
+        this.planResponseCache = planResponseCache;
+    }
+
+    /**
+     * Aciertos/fallos del cache de usuarios.
+     */
+    @GetMapping("/usuarios-cache")
+    public ResponseEntity<UserCacheStats> getUsuariosCache() {
+        return ResponseEntity.ok(userDetailsService.getCacheStats());
+    }
+
+    /**
+     * Aciertos/fallos del cache de tokens JWT verificados.
+     */
+    @GetMapping("/jwt-cache")
+    public ResponseEntity<ClaimsCacheStats> getJwtCache() {
+        return ResponseEntity.ok(jwtService.getCacheStats());
+    }
+
+    /**
+     * Estado del executor de hashing de contraseñas (costo, en curso, en cola, rechazos).
+     */
+    @GetMapping("/hashing")
+    public ResponseEntity<HashingStats> getHashing() {
+        return ResponseEntity.ok(passwordEncoder.getStats());
+    }
+
+    /**
+     * Intentos de login permitidos/rechazados por el limitador.
+     */
+    @GetMapping("/login-limiter")
+    public ResponseEntity<LoginRateLimiterStats> getLoginLimiter() {
+        return ResponseEntity.ok(loginRateLimiter.getStats());
+    }
+
+    /**
+     * Aciertos/fallos del cache de segundo nivel de planes.
+     */
+    @GetMapping("/planes-cache")
+    public ResponseEntity<PlanCacheStats> getPlanesCache() {
+        return ResponseEntity.ok(planService.getCacheStats());
+    }
+
+    /**
+     * Estado del cache de respuestas serializadas de planes.
+     */
+    @GetMapping("/planes-respuestas")
+    public ResponseEntity<PlanResponseCacheStats> getPlanesRespuestas() {
+        return ResponseEntity.ok(planResponseCache.getStats());
+    }
+}
@@ -1,6 +1,9 @@
 package com.cna.facturita.api.controller;
 
+import com.cna.facturita.api.service.PlanResponseCache;
+import com.cna.facturita.api.service.CachedResponse;
 import com.cna.facturita.core.model.Plan;
+import com.cna.facturita.core.pagination.CursorPage;
 import com.cna.facturita.core.service.PlanService;
 import com.cna.facturita.dto.PlanDTO;
 import com.cna.facturita.dto.error.ValidationErrorResponse;
@@ -18,6 +21,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -40,26 +44,31 @@ public class PlanController {
 	private static final Logger log = LoggerFactory.getLogger(PlanController.class);
 
 	private final PlanService planService;
+	private final PlanResponseCache responseCache;
 
-	public PlanController(PlanService planService) {
+	public PlanController(PlanService planService, PlanResponseCache responseCache) {
 		this.planService = planService;
+		this.responseCache = responseCache;
 
 		log.debug("Plan controller");
 	}
 
 	/**
-	 * Obtiene todos los planes con paginación.
+	 * Obtiene todos los planes con paginación. La respuesta serializada se
+	 * cachea por parámetros y se valida con ETag (304 sin consultar la base).
 	 */
 	@GetMapping
 	@Operation(summary = "Obtener todos los planes", description = "Obtiene una lista paginada de todos los planes")
 	@ApiResponses(value = { @ApiResponse(responseCode = "200", description = "Lista de planes obtenida exitosamente"),
+			@ApiResponse(responseCode = "304", description = "La lista no cambió desde el ETag enviado"),
 			@ApiResponse(responseCode = "400", description = "Parámetros de paginación inválidos"),
 			@ApiResponse(responseCode = "500", description = "Error interno del servidor") })
-	public ResponseEntity<Page<PlanDTO>> getAllPlanes(
+	public ResponseEntity<byte[]> getAllPlanes(
 			@Parameter(description = "Número de página (comenzando desde 0)", example = "0") @RequestParam(value = "page", defaultValue = "0") int page,
 			@Parameter(description = "Tamaño de página", example = "10") @RequestParam(value = "size", defaultValue = "10") int size,
 			@Parameter(description = "Campo por el cual ordenar", example = "nombre") @RequestParam(value = "sortBy", defaultValue = "nombre", required = false) String sortBy,
-			@Parameter(description = "Dirección del ordenamiento", example = "asc") @RequestParam(value = "sortDir", defaultValue = "asc", required = false) String sortDir) {
+			@Parameter(description = "Dirección del ordenamiento", example = "asc") @RequestParam(value = "sortDir", defaultValue = "asc", required = false) String sortDir,
+			@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
 
 		log.debug("GET /api/planes - page: {}, size: {}, sortBy: {}, sortDir: {}", page, size, sortBy, sortDir);
 
@@ -67,11 +76,14 @@ public class PlanController {
 			Sort.Direction direction = Sort.Direction.fromString(sortDir);
 			Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortBy));
 
-			Page<Plan> planesPage = planService.findAll(pageable);
-			Page<PlanDTO> planesDTOPage = planesPage.map(PlanDTO::fromEntity);
-
-			log.debug("Planes encontrados: {} de {}", planesPage.getNumberOfElements(), planesPage.getTotalElements());
-			return ResponseEntity.ok(planesDTOPage);
+			String key = "todos|" + page + '|' + size + '|' + sortBy + '|' + direction;
+			CachedResponse response = responseCache.get(key, () -> {
+				Page<Plan> planesPage = planService.findAll(pageable);
+				log.debug("Planes encontrados: {} de {}", planesPage.getNumberOfElements(),
+						planesPage.getTotalElements());
+				return planesPage.map(PlanDTO::fromEntity);
+			});
+			return toResponse(response, ifNoneMatch);
 
 		} catch (IllegalArgumentException e) {
 			log.error("Parámetros de paginación inválidos: {}", e.getMessage());
@@ -83,23 +95,27 @@ public class PlanController {
 	}
 
 	/**
-	 * Obtiene todos los planes activos (sin paginación).
+	 * Obtiene todos los planes activos (sin paginación), cacheados igual que
+	 * {@link #getAllPlanes}.
 	 */
 	@GetMapping("/activos")
 	@Operation(summary = "Obtener planes activos", description = "Obtiene una lista de todos los planes no bloqueados")
 	@ApiResponses(value = {
 			@ApiResponse(responseCode = "200", description = "Lista de planes activos obtenida exitosamente"),
+			@ApiResponse(responseCode = "304", description = "La lista no cambió desde el ETag enviado"),
 			@ApiResponse(responseCode = "500", description = "Error interno del servidor") })
-	public ResponseEntity<List<PlanDTO>> getPlanesActivos() {
+	public ResponseEntity<byte[]> getPlanesActivos(
+			@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
 		log.debug("GET /api/planes/activos");
 
 		try {
-			List<Plan> planesActivos = planService.findAllActive();
-			List<PlanDTO> planesDTOActivos = planesActivos.stream().map(PlanDTO::fromEntity)
-					.collect(Collectors.toList());
-
-			log.debug("Planes activos encontrados: {}", planesDTOActivos.size());
-			return ResponseEntity.ok(planesDTOActivos);
+			CachedResponse response = responseCache.get("activos", () -> {
+				List<PlanDTO> planesDTOActivos = planService.findAllActive().stream().map(PlanDTO::fromEntity)
+						.collect(Collectors.toList());
+				log.debug("Planes activos encontrados: {}", planesDTOActivos.size());
+				return planesDTOActivos;
+			});
+			return toResponse(response, ifNoneMatch);
 
 		} catch (Exception e) {
 			log.error("Error al obtener planes activos: {}", e.getMessage(), e);
@@ -107,6 +123,16 @@ public class PlanController {
 		}
 	}
 
+	/**
+	 * 304 si el cliente ya tiene la versión actual; si no, los bytes cacheados.
+	 */
+	private ResponseEntity<byte[]> toResponse(CachedResponse response, String ifNoneMatch) {
+		if (response.matches(ifNoneMatch)) {
+			responseCache.recordNotModified();
+		}
+		return response.toResponseEntity(ifNoneMatch);
+	}
+
 	/**
 	 * Obtiene un plan por su ID.
 	 */
@@ -298,6 +324,33 @@ public class PlanController {
 		}
 	}
 
+	/**
+	 * Lista/busca planes con paginación por cursor (keyset). Para listados
+	 * largos y búsqueda incremental: no calcula totales ni usa OFFSET.
+	 */
+	@GetMapping("/cursor")
+	@Operation(summary = "Listar planes por cursor", description = "Lista planes ordenados por nombre usando un cursor opaco para la página siguiente")
+	@ApiResponses(value = { @ApiResponse(responseCode = "200", description = "Página obtenida exitosamente"),
+			@ApiResponse(responseCode = "400", description = "Cursor inválido"),
+			@ApiResponse(responseCode = "500", description = "Error interno del servidor") })
+	public ResponseEntity<CursorPage<PlanDTO>> getPlanesByCursor(
+			@Parameter(description = "Término de búsqueda", example = "básico") @RequestParam(required = false) String q,
+			@Parameter(description = "Cursor devuelto por la página anterior") @RequestParam(required = false) String cursor,
+			@Parameter(description = "Tamaño de página (máximo 100)", example = "20") @RequestParam(defaultValue = "20") int size) {
+
+		log.debug("GET /api/planes/cursor - q: '{}', size: {}", q, size);
+
+		try {
+			return ResponseEntity.ok(planService.findByCursor(q, cursor, size).map(PlanDTO::fromEntity));
+		} catch (IllegalArgumentException e) {
+			log.warn("Cursor de planes inválido: {}", e.getMessage());
+			return ResponseEntity.badRequest().build();
+		} catch (Exception e) {
+			log.error("Error al listar planes por cursor: {}", e.getMessage(), e);
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+		}
+	}
+
 	/**
 	 * Cambia el estado de bloqueo de un plan.
 	 */
@@ -329,6 +382,27 @@ public class PlanController {
 		}
 	}
 
+	/**
+	 * Obtiene los planes con más clientes asignados.
+	 */
+	@GetMapping("/populares")
+	@Operation(summary = "Obtener planes más populares", description = "Obtiene los planes con más clientes asignados, según el ranking recalculado periódicamente")
+	@ApiResponses(value = { @ApiResponse(responseCode = "200", description = "Ranking obtenido exitosamente"),
+			@ApiResponse(responseCode = "500", description = "Error interno del servidor") })
+	public ResponseEntity<List<PlanDTO>> getPlanesPopulares(
+			@Parameter(description = "Cantidad de planes (máximo 50)", example = "5") @RequestParam(defaultValue = "5") int limit) {
+		log.debug("GET /api/planes/populares - limit: {}", limit);
+
+		try {
+			List<PlanDTO> populares = planService.findMostPopular(limit).stream().map(PlanDTO::fromEntity)
+					.collect(Collectors.toList());
+			return ResponseEntity.ok(populares);
+		} catch (Exception e) {
+			log.error("Error al obtener planes populares: {}", e.getMessage(), e);
+			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+		}
+	}
+
 	/**
 	 * Obtiene estadísticas de planes.
 	 */
@@ -4,6 +4,9 @@ import com.cna.facturita.dto.UsuarioDTO;
 import com.cna.facturita.dto.form.UsuarioForm;
 import com.cna.facturita.core.model.Usuario;
 import com.cna.facturita.core.repository.UsuarioRepository;
+import com.cna.facturita.multitenant.context.TenantContext;
+import com.cna.facturita.security.service.CustomUserDetailsService;
+import com.cna.facturita.security.service.UserStatusService;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -27,6 +30,8 @@ public class UsuarioController {
 
     private final UsuarioRepository usuarioRepository;
     private final PasswordEncoder passwordEncoder;
+    private final CustomUserDetailsService userDetailsService;
+    private final UserStatusService userStatusService;
 
     /**
      * Lista todos los usuarios registrados.
@@ -71,6 +76,7 @@ public class UsuarioController {
         Usuario usuario = (form.getId() != null)
                 ? usuarioRepository.findById(form.getId()).orElse(new Usuario())
                 : new Usuario();
+        String emailAnterior = usuario.getEmail();
 
         // Aplicar datos del formulario
         form.applyTo(usuario);
@@ -79,6 +85,12 @@ public class UsuarioController {
         usuario.setPassword(passwordEncoder.encode(form.getPassword()));
 
         usuarioRepository.save(usuario);
+        evictUsuario(emailAnterior);
+        evictUsuario(usuario.getEmail());
+        if (emailAnterior != null && !emailAnterior.equals(usuario.getEmail())) {
+            // Los tokens emitidos con el email anterior ya no identifican a nadie
+            userStatusService.revoke(TenantContext.getCurrentTenant(), emailAnterior);
+        }
 
         String mensaje = (form.getId() != null)
                 ? "Usuario actualizado con éxito"
@@ -95,12 +107,15 @@ public class UsuarioController {
     public ResponseEntity<?> eliminar(@PathVariable Integer id) {
         log.info("Eliminando usuario con ID: {}", id);
         
-        if (!usuarioRepository.existsById(id)) {
+        Optional<Usuario> usuario = usuarioRepository.findById(id);
+        if (usuario.isEmpty()) {
             log.warn("Intento de eliminar usuario inexistente con ID: {}", id);
             return ResponseEntity.notFound().build();
         }
         
         usuarioRepository.deleteById(id);
+        evictUsuario(usuario.get().getEmail());
+        userStatusService.revoke(TenantContext.getCurrentTenant(), usuario.get().getEmail());
         log.info("Usuario eliminado exitosamente con ID: {}", id);
         return ResponseEntity.ok(new MensajeResponse(true, "Usuario eliminado con éxito"));
     }
@@ -116,6 +131,18 @@ public class UsuarioController {
                      .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * Descarta los datos cacheados del usuario en la capa de seguridad.
+     */
+    private void evictUsuario(String email) {
+        if (email == null) {
+            return;
+        }
+        String tenant = TenantContext.getCurrentTenant();
+        userDetailsService.evict(tenant, email);
+        userStatusService.invalidate(tenant, email);
+    }
+
     // DTO de respuesta simple
     record MensajeResponse(boolean success, String message) {}
 }
@@ -1,6 +1,8 @@
 package com.cna.facturita.api.controller.tenant;
 
 import com.cna.facturita.core.model.tenant.Cliente;
+import com.cna.facturita.core.pagination.CursorPage;
+import com.cna.facturita.core.repository.tenant.ClienteResumen;
 import com.cna.facturita.core.service.tenant.ClienteService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -16,9 +18,42 @@ public class ClienteController {
         this.clienteService = clienteService;
     }
 
+    /**
+     * Listado de clientes filtrado y paginado por cursor. Devuelve solo las
+     * columnas del listado ({@link ClienteResumen}); {@code nextCursor} pide la
+     * página siguiente.
+     */
     @GetMapping
-    public List<Cliente> findAll() {
-        return clienteService.findAll();
+    public ResponseEntity<CursorPage<ClienteResumen>> findAll(
+            @RequestParam(required = false) String numero,
+            @RequestParam(required = false) String nombre,
+            @RequestParam(required = false) Boolean estado,
+            @RequestParam(required = false) String distrito,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        try {
+            return ResponseEntity.ok(clienteService.findResumen(numero, nombre, estado, distrito, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Busca un cliente por tipo y número de documento (ej: tipo 6 = RUC).
+     */
+    @GetMapping("/documento")
+    public ResponseEntity<ClienteResumen> findByDocumento(@RequestParam String tipo, @RequestParam String numero) {
+        return clienteService.findByDocumento(tipo, numero)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Búsqueda incremental por nombre o nombre comercial.
+     */
+    @GetMapping("/buscar")
+    public List<ClienteResumen> search(@RequestParam String q, @RequestParam(defaultValue = "10") int limit) {
+        return clienteService.searchByNombre(q, limit);
     }
 
     @GetMapping("/{id}")
@@ -1,30 +1,57 @@
 package com.cna.facturita.api.controller.tenant;
 
+import com.cna.facturita.api.service.UbigeoResponseCache;
 import com.cna.facturita.core.model.tenant.Departamento;
 import com.cna.facturita.core.service.tenant.DepartamentoService;
+import com.cna.facturita.core.service.tenant.UbigeoCatalog;
+import com.cna.facturita.core.service.tenant.UbigeoCatalog.UbigeoItem;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.List;
-import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/departamentos")
 public class DepartamentoController {
     private final DepartamentoService departamentoService;
+    private final UbigeoResponseCache ubigeoResponseCache;
+    private final UbigeoCatalog ubigeoCatalog;
 
-    public DepartamentoController(DepartamentoService departamentoService) {
+    public DepartamentoController(DepartamentoService departamentoService, UbigeoResponseCache ubigeoResponseCache,
+            UbigeoCatalog ubigeoCatalog) {
         this.departamentoService = departamentoService;
+        this.ubigeoResponseCache = ubigeoResponseCache;
+        this.ubigeoCatalog = ubigeoCatalog;
     }
 
+    /**
+     * Listado completo desde el catálogo de ubigeo en memoria, ya serializado
+     * (304 si el ETag coincide).
+     */
     @GetMapping
-    public List<Departamento> findAll() {
-        return departamentoService.findAll();
+    public ResponseEntity<byte[]> findAll(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ubigeoResponseCache.departamentos().toResponseEntity(ifNoneMatch);
     }
 
+    /**
+     * Departamento por código, en forma plana (sin relaciones lazy).
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<Departamento> findById(@PathVariable String id) {
-        Optional<Departamento> departamento = departamentoService.findById(id);
-        return departamento.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+    public ResponseEntity<UbigeoItem> findById(@PathVariable String id) {
+        return ubigeoCatalog.departamento(id).map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Provincias del departamento, desde el catálogo en memoria: una búsqueda por
+     * código y un rango contiguo, sin consultas ni relaciones lazy.
+     */
+    @GetMapping("/{id}/provincias")
+    public ResponseEntity<List<UbigeoItem>> findProvincias(@PathVariable String id) {
+        if (ubigeoCatalog.departamento(id).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(ubigeoCatalog.provincias(id));
     }
 
     /* @PostMapping
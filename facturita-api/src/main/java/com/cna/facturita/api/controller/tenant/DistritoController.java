@@ -1,30 +1,54 @@
 package com.cna.facturita.api.controller.tenant;
 
+import com.cna.facturita.api.service.UbigeoResponseCache;
 import com.cna.facturita.core.model.tenant.Distrito;
 import com.cna.facturita.core.service.tenant.DistritoService;
+import com.cna.facturita.core.service.tenant.UbigeoCatalog;
+import com.cna.facturita.core.service.tenant.UbigeoCatalog.UbigeoItem;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.List;
-import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/distritos")
 public class DistritoController {
     private final DistritoService distritoService;
+    private final UbigeoResponseCache ubigeoResponseCache;
+    private final UbigeoCatalog ubigeoCatalog;
 
-    public DistritoController(DistritoService distritoService) {
+    public DistritoController(DistritoService distritoService, UbigeoResponseCache ubigeoResponseCache,
+            UbigeoCatalog ubigeoCatalog) {
         this.distritoService = distritoService;
+        this.ubigeoResponseCache = ubigeoResponseCache;
+        this.ubigeoCatalog = ubigeoCatalog;
     }
 
+    /**
+     * Listado completo desde el catálogo de ubigeo en memoria, ya serializado
+     * (304 si el ETag coincide).
+     */
     @GetMapping
-    public List<Distrito> findAll() {
-        return distritoService.findAll();
+    public ResponseEntity<byte[]> findAll(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ubigeoResponseCache.distritos().toResponseEntity(ifNoneMatch);
     }
 
+    /**
+     * Distritos cuyo nombre empieza con el texto (sin distinguir tildes ni
+     * mayúsculas).
+     */
+    @GetMapping("/buscar")
+    public List<UbigeoItem> buscar(@RequestParam String q, @RequestParam(defaultValue = "20") int limit) {
+        return ubigeoCatalog.buscarDistritos(q, Math.min(limit, 100));
+    }
+
+    /**
+     * Distrito por código, en forma plana (sin relaciones lazy).
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<Distrito> findById(@PathVariable String id) {
-        Optional<Distrito> distrito = distritoService.findById(id);
-        return distrito.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+    public ResponseEntity<UbigeoItem> findById(@PathVariable String id) {
+        return ubigeoCatalog.distrito(id).map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     /* @PostMapping
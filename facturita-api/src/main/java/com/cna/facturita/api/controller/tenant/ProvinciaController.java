@@ -1,30 +1,57 @@
 package com.cna.facturita.api.controller.tenant;
 
+import com.cna.facturita.api.service.UbigeoResponseCache;
 import com.cna.facturita.core.model.tenant.Provincia;
 import com.cna.facturita.core.service.tenant.ProvinciaService;
+import com.cna.facturita.core.service.tenant.UbigeoCatalog;
+import com.cna.facturita.core.service.tenant.UbigeoCatalog.UbigeoItem;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.List;
-import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/provincias")
 public class ProvinciaController {
     private final ProvinciaService provinciaService;
+    private final UbigeoResponseCache ubigeoResponseCache;
+    private final UbigeoCatalog ubigeoCatalog;
 
-    public ProvinciaController(ProvinciaService provinciaService) {
+    public ProvinciaController(ProvinciaService provinciaService, UbigeoResponseCache ubigeoResponseCache,
+            UbigeoCatalog ubigeoCatalog) {
         this.provinciaService = provinciaService;
+        this.ubigeoResponseCache = ubigeoResponseCache;
+        this.ubigeoCatalog = ubigeoCatalog;
     }
 
+    /**
+     * Listado completo desde el catálogo de ubigeo en memoria, ya serializado
+     * (304 si el ETag coincide).
+     */
     @GetMapping
-    public List<Provincia> findAll() {
-        return provinciaService.findAll();
+    public ResponseEntity<byte[]> findAll(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ubigeoResponseCache.provincias().toResponseEntity(ifNoneMatch);
     }
 
+    /**
+     * Provincia por código, en forma plana (sin relaciones lazy).
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<Provincia> findById(@PathVariable String id) {
-        Optional<Provincia> provincia = provinciaService.findById(id);
-        return provincia.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+    public ResponseEntity<UbigeoItem> findById(@PathVariable String id) {
+        return ubigeoCatalog.provincia(id).map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Distritos de la provincia, desde el catálogo en memoria: una búsqueda por
+     * código y un rango contiguo, sin consultas ni relaciones lazy.
+     */
+    @GetMapping("/{id}/distritos")
+    public ResponseEntity<List<UbigeoItem>> findDistritos(@PathVariable String id) {
+        if (ubigeoCatalog.provincia(id).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(ubigeoCatalog.distritos(id));
     }
 
     /* @PostMapping
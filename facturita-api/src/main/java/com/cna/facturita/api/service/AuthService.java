@@ -10,6 +10,11 @@ import com.cna.facturita.core.model.Usuario;
 import com.cna.facturita.core.model.tenant.UsuarioTenant;
 import com.cna.facturita.core.repository.UsuarioRepository;
 import com.cna.facturita.core.repository.tenant.UsuarioRepositoryTenant;
+import com.cna.facturita.security.crypto.PasswordHashingBusyException;
+import com.cna.facturita.security.ratelimit.LoginRateLimiter;
+import com.cna.facturita.security.refresh.RefreshTokenService;
+import com.cna.facturita.security.refresh.RefreshTokenService.Rotation;
+import com.cna.facturita.security.refresh.RefreshToken;
 import com.cna.facturita.security.service.JwtService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -17,11 +22,14 @@ import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.List;
+
 @Service
 @RequiredArgsConstructor
 public class AuthService {
@@ -30,16 +38,21 @@ public class AuthService {
 
     private final AuthenticationManager authenticationManager;
     private final JwtService jwtService;
+    private final RefreshTokenService refreshTokenService;
+    private final LoginRateLimiter loginRateLimiter;
     @Qualifier("UsuarioRepository")
     private final UsuarioRepository usuarioRepository;
     @Qualifier("UsuarioRepositoryTenant")
     private final UsuarioRepositoryTenant usuarioRepositoryTenant;
 
-    public LoginResponse login(LoginRequest request) throws AuthenticationException {
+    public LoginResponse login(LoginRequest request, String clientIp) throws AuthenticationException {
+        // Rechazo barato antes de ejecutar BCrypt
+        loginRateLimiter.check(TenantContext.getCurrentTenant(), request.getEmail(), clientIp);
         logger.info("[AuthService]  -> [LoginResponse]: Ejecutando authenticate()...");
         try {
             Authentication authentication = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword()));
+            loginRateLimiter.onSuccess(TenantContext.getCurrentTenant(), request.getEmail(), clientIp);
             logger.info("[AuthService] -> [LoginResponse]: Asignado a userDetails");
             UserDetails userDetails = (UserDetails) authentication.getPrincipal();
 
@@ -52,27 +65,35 @@ public class AuthService {
                     || currentTenant.equalsIgnoreCase("cna")) {
                 usuario = usuarioRepository.findByEmail(userDetails.getUsername())
                         .orElseThrow(() -> new AuthenticationException("Usuario no encontrado"));
-                // Generar token
-                String token = jwtService.generateToken(userDetails.getUsername());
+                // Generar token con tenant, roles e id como claims
+                String token = jwtService.generateToken(userDetails.getUsername(), currentTenant,
+                        usuario.getId(), rolesOf(userDetails));
                 return LoginResponse.builder()
                         .user(UsuarioDTO.fromEntity(usuario))
                         .token(token)
-                        .refreshToken(null) // Por ahora no implementamos refresh token
+                        .refreshToken(refreshTokenService.issue(currentTenant, userDetails.getUsername(),
+                                usuario.getId(), rolesOf(userDetails)))
                         .expiresIn(jwtService.getExpirationInSeconds())
                         .build();
             } else {
                 usuarioTenant = usuarioRepositoryTenant.findByEmail(userDetails.getUsername())
                         .orElseThrow(() -> new AuthenticationException("Usuario no encontrado en tenant"));
                 // Construir respuesta completa
-                String token = jwtService.generateToken(userDetails.getUsername());
+                String token = jwtService.generateToken(userDetails.getUsername(), currentTenant,
+                        usuarioTenant.getId(), rolesOf(userDetails));
                 return LoginResponse.builder()
                         .userTenant(UsuarioTenantDTO.fromEntity(usuarioTenant))
                         .token(token)
-                        .refreshToken(null) // Por ahora no implementamos refresh token
+                        .refreshToken(refreshTokenService.issue(currentTenant, userDetails.getUsername(),
+                                usuarioTenant.getId(), rolesOf(userDetails)))
                         .expiresIn(jwtService.getExpirationInSeconds())
                         .build();
             }
 
+        } catch (PasswordHashingBusyException e) {
+            // Saturación del executor de hashing: no es un error de credenciales
+            logger.warn("[AuthService] -> Verificación de contraseña rechazada por saturación: {}", e.getMessage());
+            throw e;
         } catch (BadCredentialsException e) {
             logger.error("[AuthService] -> Credenciales inválidas para el usuario: {}", request.getEmail());
             throw new AuthenticationException("Credenciales inválidas");
@@ -81,4 +102,32 @@ public class AuthService {
             throw new AuthenticationException("Error en la autenticación: " + e.getMessage());
         }
     }
+
+    /**
+     * Canjea un refresh token por un nuevo access token y un nuevo refresh
+     * token, sin volver a verificar la contraseña.
+     */
+    public LoginResponse refresh(String refreshToken) throws AuthenticationException {
+        String currentTenant = TenantContext.getCurrentTenant();
+        Rotation rotation = refreshTokenService.rotate(currentTenant, refreshToken)
+                .orElseThrow(() -> new AuthenticationException("Refresh token inválido o expirado"));
+        RefreshToken anterior = rotation.anterior();
+        String token = jwtService.generateToken(anterior.email(), currentTenant, anterior.uid(), anterior.roles());
+        return LoginResponse.builder()
+                .token(token)
+                .refreshToken(rotation.nuevoToken())
+                .expiresIn(jwtService.getExpirationInSeconds())
+                .build();
+    }
+
+    /**
+     * Cierra la sesión asociada al refresh token.
+     */
+    public void logout(String refreshToken) {
+        refreshTokenService.revoke(TenantContext.getCurrentTenant(), refreshToken);
+    }
+
+    private static List<String> rolesOf(UserDetails userDetails) {
+        return userDetails.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList();
+    }
 }
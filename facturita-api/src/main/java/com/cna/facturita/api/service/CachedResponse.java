@@ -0,0 +1,66 @@
+package com.cna.facturita.api.service;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * Respuesta JSON ya serializada con su ETag fuerte (SHA-256 del contenido).
+ *
+ * @param body    Bytes JSON
+ * @param etag    ETag entre comillas
+ * @param version Versión de los datos con la que se calculó
+ */
+public record CachedResponse(byte[] body, String etag, long version) {
+
+    public static CachedResponse of(byte[] body, long version) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return new CachedResponse(body, '"' + Base64.getUrlEncoder().withoutPadding().encodeToString(digest) + '"',
+                    version);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    /**
+     * Indica si el valor de {@code If-None-Match} incluye este ETag.
+     */
+    public boolean matches(String ifNoneMatch) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 304 si el cliente ya tiene esta versión; si no, 200 con los bytes.
+     */
+    public ResponseEntity<byte[]> toResponseEntity(String ifNoneMatch) {
+        if (matches(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache())
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+}
@@ -0,0 +1,110 @@
+package com.cna.facturita.api.service;
+
+import com.cna.facturita.core.service.PlanService.PlanesModificadosEvent;
+import com.cna.facturita.multitenant.context.TenantContext;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Cache de respuestas ya serializadas de los listados de planes.
+ * <p>
+ * Guarda los bytes JSON (con el mismo {@link ObjectMapper} de Spring MVC) y un
+ * ETag fuerte ({@link CachedResponse}) por tenant y parámetros de consulta.
+ * Cada {@link PlanesModificadosEvent} incrementa la versión y vacía el cache;
+ * una entrada calculada con una versión anterior no se guarda. Entre nodos la
+ * desactualización queda acotada por {@code ttl}.
+ */
+@Slf4j
+@Service
+public class PlanResponseCache {
+
+    private final ObjectMapper objectMapper;
+
+    private final AtomicLong version = new AtomicLong();
+
+    private final LongAdder notModified = new LongAdder();
+
+    @Value("${facturita.planes.response-cache.max-size:1000}")
+    private long maxSize;
+
+    @Value("${facturita.planes.response-cache.ttl:10m}")
+    private Duration ttl;
+
+    private Cache<String, CachedResponse> cache;
+
+    public PlanResponseCache(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Devuelve la respuesta cacheada para la clave del tenant actual o la
+     * calcula con {@code loader} y la serializa.
+     */
+    public CachedResponse get(String key, Supplier<?> loader) {
+        String cacheKey = TenantContext.getCurrentTenant() + '|' + key;
+        long current = version.get();
+        CachedResponse cached = cache.getIfPresent(cacheKey);
+        if (cached != null && cached.version() == current) {
+            return cached;
+        }
+
+        CachedResponse response = CachedResponse.of(serialize(loader.get()), current);
+        if (version.get() == current) {
+            cache.put(cacheKey, response);
+        }
+        return response;
+    }
+
+    /**
+     * Registra una respuesta 304 servida desde el cache.
+     */
+    public void recordNotModified() {
+        notModified.increment();
+    }
+
+    @EventListener
+    public void onPlanesModificados(PlanesModificadosEvent event) {
+        long nueva = version.incrementAndGet();
+        cache.invalidateAll();
+        log.debug("[PlanResponseCache] Planes modificados, versión {}", nueva);
+    }
+
+    public PlanResponseCacheStats getStats() {
+        CacheStats stats = cache.stats();
+        return new PlanResponseCacheStats(version.get(), cache.estimatedSize(), stats.hitCount(),
+                stats.missCount(), notModified.sum());
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar la respuesta de planes", e);
+        }
+    }
+
+    public record PlanResponseCacheStats(long version, long entradas, long hits, long misses, long notModified) {
+    }
+}
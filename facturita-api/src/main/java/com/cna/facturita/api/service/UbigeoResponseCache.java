@@ -0,0 +1,62 @@
+package com.cna.facturita.api.service;
+
+import com.cna.facturita.core.service.tenant.UbigeoCatalog;
+import com.cna.facturita.core.service.tenant.UbigeoCatalog.Listado;
+import com.cna.facturita.core.service.tenant.UbigeoCatalog.Nivel;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Listados completos del catálogo de ubigeo ya serializados, versionados con
+ * la versión del catálogo. Lista y versión se leen juntas
+ * ({@link UbigeoCatalog#listado}), así que el cuerpo y el ETag siempre
+ * corresponden. Se serializan una vez por versión y se sirven con ETag.
+ */
+@Service
+public class UbigeoResponseCache {
+
+    private final UbigeoCatalog ubigeoCatalog;
+    private final ObjectMapper objectMapper;
+
+    private final Map<Nivel, CachedResponse> responses = new ConcurrentHashMap<>();
+
+    public UbigeoResponseCache(UbigeoCatalog ubigeoCatalog, ObjectMapper objectMapper) {
+        this.ubigeoCatalog = ubigeoCatalog;
+        this.objectMapper = objectMapper;
+    }
+
+    public CachedResponse departamentos() {
+        return get(Nivel.DEPARTAMENTOS);
+    }
+
+    public CachedResponse provincias() {
+        return get(Nivel.PROVINCIAS);
+    }
+
+    public CachedResponse distritos() {
+        return get(Nivel.DISTRITOS);
+    }
+
+    private CachedResponse get(Nivel nivel) {
+        Listado listado = ubigeoCatalog.listado(nivel);
+        CachedResponse cached = responses.get(nivel);
+        if (cached != null && cached.version() == listado.version()) {
+            return cached;
+        }
+        CachedResponse response = CachedResponse.of(serialize(listado.items()), listado.version());
+        responses.put(nivel, response);
+        return response;
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el catálogo de ubigeo", e);
+        }
+    }
+}
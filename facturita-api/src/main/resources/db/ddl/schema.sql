@@ -49,3 +49,18 @@ CREATE TABLE IF NOT EXISTS ${tenant}.planes (
     fecha_creacion TIMESTAMP,
     fecha_actualizacion TIMESTAMP
 );
+
+-- Ranking materializado de popularidad de planes (PlanPopularidadService)
+CREATE TABLE IF NOT EXISTS ${tenant}.planes_popularidad (
+    plan_id INTEGER PRIMARY KEY REFERENCES ${tenant}.planes (id) ON DELETE CASCADE,
+    total_clientes BIGINT NOT NULL DEFAULT 0,
+    fecha_actualizacion TIMESTAMP
+);
+CREATE INDEX IF NOT EXISTS idx_planes_popularidad_total ON ${tenant}.planes_popularidad (total_clientes DESC, plan_id);
+
+-- Índices de planes: orden/keyset por nombre normalizado y búsqueda "contiene"
+-- con trigramas. La extensión va al final: si no hay permisos para crearla,
+-- el resto del script ya se ejecutó.
+CREATE INDEX IF NOT EXISTS idx_planes_nombre_id ON ${tenant}.planes (LOWER(COALESCE(nombre, '')), id);
+CREATE EXTENSION IF NOT EXISTS pg_trgm WITH SCHEMA public;
+CREATE INDEX IF NOT EXISTS idx_planes_nombre_trgm ON ${tenant}.planes USING gin (LOWER(COALESCE(nombre, '')) public.gin_trgm_ops);
@@ -0,0 +1,35 @@
+-- DDL del esquema compartido de catálogos de referencia. Se crea una sola vez
+-- y lo leen todos los tenants a través del search_path.
+CREATE SCHEMA IF NOT EXISTS ${referencia};
+
+CREATE TABLE IF NOT EXISTS ${referencia}.t_tipos_documento_identidad (
+    id VARCHAR(2) PRIMARY KEY,
+    nombre VARCHAR(255) NOT NULL,
+    estado BOOLEAN NOT NULL DEFAULT TRUE
+);
+
+CREATE TABLE IF NOT EXISTS ${referencia}.t_departamentos (
+    id VARCHAR(2) PRIMARY KEY,
+    nombre VARCHAR(255) NOT NULL,
+    estado BOOLEAN NOT NULL DEFAULT TRUE
+);
+
+CREATE TABLE IF NOT EXISTS ${referencia}.t_provincias (
+    id VARCHAR(4) PRIMARY KEY,
+    departamento_id VARCHAR(2) NOT NULL REFERENCES ${referencia}.t_departamentos(id),
+    nombre VARCHAR(255) NOT NULL,
+    estado BOOLEAN NOT NULL DEFAULT TRUE
+);
+
+CREATE TABLE IF NOT EXISTS ${referencia}.t_distritos (
+    id VARCHAR(6) PRIMARY KEY,
+    provincia_id VARCHAR(4) NOT NULL REFERENCES ${referencia}.t_provincias(id),
+    nombre VARCHAR(255) NOT NULL,
+    estado BOOLEAN NOT NULL DEFAULT TRUE
+);
+
+CREATE TABLE IF NOT EXISTS ${referencia}.t_paises (
+    id VARCHAR(2) PRIMARY KEY,
+    nombre VARCHAR(50) NOT NULL,
+    estado BOOLEAN NOT NULL DEFAULT TRUE
+);
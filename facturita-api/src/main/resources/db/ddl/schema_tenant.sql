@@ -1,46 +1,35 @@
 -- DDL para entidades tenant
 CREATE SCHEMA IF NOT EXISTS ${tenant};
 
-CREATE TABLE IF NOT EXISTS ${tenant}.t_tipos_documento_identidad (
-    id VARCHAR(2) PRIMARY KEY,
-    nombre VARCHAR(255) NOT NULL,
-    estado BOOLEAN NOT NULL DEFAULT TRUE
-);
-
-CREATE TABLE IF NOT EXISTS ${tenant}.t_departamentos (
-    id VARCHAR(2) PRIMARY KEY,
-    nombre VARCHAR(255) NOT NULL,
-    estado BOOLEAN NOT NULL DEFAULT TRUE
-);
-
-CREATE TABLE IF NOT EXISTS ${tenant}.t_provincias (
-    id VARCHAR(4) PRIMARY KEY,
-    departamento_id VARCHAR(2) NOT NULL REFERENCES ${tenant}.t_departamentos(id),
-    nombre VARCHAR(255) NOT NULL,
-    estado BOOLEAN NOT NULL DEFAULT TRUE
-);
+-- Los catálogos globales (tipos de documento, ubigeo, países) están en el
+-- esquema compartido ${referencia} (schema_referencia.sql) y las claves
+-- foráneas de los tenants apuntan allí. Un tenant solo puede sobrescribir el
+-- nombre o el estado de un tipo de documento o país existente, con una fila
+-- en la tabla *_override; schema_tenant_catalogos.sql crea las vistas que
+-- los combinan. Los ids son siempre los compartidos, así que las FKs siguen
+-- siendo válidas. Las copias locales de tenants anteriores las migra
+-- ReferenceCatalogMigrator.
 
-CREATE TABLE IF NOT EXISTS ${tenant}.t_distritos (
-    id VARCHAR(6) PRIMARY KEY,
-    provincia_id VARCHAR(4) NOT NULL REFERENCES ${tenant}.t_provincias(id),
-    nombre VARCHAR(255) NOT NULL,
-    estado BOOLEAN NOT NULL DEFAULT TRUE
+CREATE TABLE IF NOT EXISTS ${tenant}.t_tipos_documento_identidad_override (
+    id VARCHAR(2) PRIMARY KEY REFERENCES ${referencia}.t_tipos_documento_identidad(id),
+    nombre VARCHAR(255),
+    estado BOOLEAN
 );
 
-CREATE TABLE IF NOT EXISTS ${tenant}.t_paises (
-    id VARCHAR(2) PRIMARY KEY,
-    nombre VARCHAR(50) NOT NULL,
-    estado BOOLEAN NOT NULL DEFAULT TRUE
+CREATE TABLE IF NOT EXISTS ${tenant}.t_paises_override (
+    id VARCHAR(2) PRIMARY KEY REFERENCES ${referencia}.t_paises(id),
+    nombre VARCHAR(50),
+    estado BOOLEAN
 );
 
 CREATE TABLE IF NOT EXISTS ${tenant}.t_clientes (
     id INTEGER GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
-    tipo_documento_identidad_id VARCHAR(2) NOT NULL REFERENCES ${tenant}.t_tipos_documento_identidad(id),
+    tipo_documento_identidad_id VARCHAR(2) NOT NULL REFERENCES ${referencia}.t_tipos_documento_identidad(id),
     numero VARCHAR(255) NOT NULL,
     nombre VARCHAR(255) NOT NULL,
     nombre_comercial VARCHAR(255),
-    pais_id VARCHAR(2) NOT NULL REFERENCES ${tenant}.t_paises(id),
-    distrito_id VARCHAR(6) REFERENCES ${tenant}.t_distritos(id),
+    pais_id VARCHAR(2) NOT NULL REFERENCES ${referencia}.t_paises(id),
+    distrito_id VARCHAR(6) REFERENCES ${referencia}.t_distritos(id),
     direccion VARCHAR(255),
     condicion_sunat VARCHAR(255),
     estado_sunat VARCHAR(255),
@@ -63,4 +52,19 @@ CREATE TABLE IF NOT EXISTS ${tenant}.t_usuarios (
     tipo_usuario VARCHAR(20) NOT NULL,
     estado BOOLEAN NOT NULL DEFAULT TRUE,
     bloqueado BOOLEAN NOT NULL DEFAULT FALSE
-);
\ No newline at end of file
+);
+
+-- Listado de clientes por distrito en orden de id (ClienteRepository.findResumen)
+CREATE INDEX IF NOT EXISTS idx_t_clientes_distrito_id ON ${tenant}.t_clientes (distrito_id, id);
+
+-- Búsqueda de clientes para la emisión de comprobantes (ClienteService):
+-- documento exacto, prefijo de nombre y "contiene" con trigramas.
+CREATE INDEX IF NOT EXISTS idx_t_clientes_documento ON ${tenant}.t_clientes (tipo_documento_identidad_id, numero);
+-- Prefijo de nombre en orden (nombre, id): con collation por bytes el mismo
+-- índice sirve al LIKE 'abc%' y al ORDER BY, cosa que text_pattern_ops no hace
+CREATE INDEX IF NOT EXISTS idx_t_clientes_nombre_c_id ON ${tenant}.t_clientes ((LOWER(nombre) COLLATE ucs_basic), id);
+-- La extensión va al final: si no hay permisos para crearla, solo se pierden
+-- los índices trigram que siguen
+CREATE EXTENSION IF NOT EXISTS pg_trgm WITH SCHEMA public;
+CREATE INDEX IF NOT EXISTS idx_t_clientes_nombre_trgm ON ${tenant}.t_clientes USING gin (LOWER(nombre) public.gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_t_clientes_nombre_comercial_trgm ON ${tenant}.t_clientes USING gin (LOWER(COALESCE(nombre_comercial, '')) public.gin_trgm_ops);
@@ -0,0 +1,14 @@
+-- Vistas de los catálogos sobrescribibles del tenant: filas del esquema
+-- compartido con el nombre/estado del override cuando existe. Tienen el mismo
+-- nombre que la tabla compartida y el search_path "tenant, referencia" las
+-- antepone. Se crean después de la carga de catálogos, que escribe en las
+-- tablas compartidas.
+CREATE OR REPLACE VIEW ${tenant}.t_tipos_documento_identidad AS
+SELECT r.id, COALESCE(o.nombre, r.nombre) AS nombre, COALESCE(o.estado, r.estado) AS estado
+FROM ${referencia}.t_tipos_documento_identidad r
+LEFT JOIN ${tenant}.t_tipos_documento_identidad_override o ON o.id = r.id;
+
+CREATE OR REPLACE VIEW ${tenant}.t_paises AS
+SELECT r.id, COALESCE(o.nombre, r.nombre) AS nombre, COALESCE(o.estado, r.estado) AS estado
+FROM ${referencia}.t_paises r
+LEFT JOIN ${tenant}.t_paises_override o ON o.id = r.id;
@@ -2,6 +2,7 @@ package com.cna.facturita.core.model;
 
 import com.vladmihalcea.hibernate.type.json.JsonType;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
@@ -16,6 +17,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.Type;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -26,16 +29,26 @@ import java.util.List;
  * Cada plan define los límites, características y costos asociados a la cuenta
  * de un cliente.
  * Esta clase es una entidad de base de datos para la tabla "planes".
+ * Los planes cambian pocas veces al mes, por lo que se guardan en el cache de
+ * segundo nivel (región {@value #CACHE_REGION}).
  */
 @Slf4j
 @Entity
 @Table(name = "planes")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Plan.CACHE_REGION)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Plan {
 
+    /** Región del cache de segundo nivel para las entidades Plan. */
+    public static final String CACHE_REGION = "planes";
+
+    /** Región del cache de consultas de planes. */
+    public static final String QUERY_CACHE_REGION = "planes-consultas";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
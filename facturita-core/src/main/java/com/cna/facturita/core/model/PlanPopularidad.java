@@ -0,0 +1,49 @@
+package com.cna.facturita.core.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.OneToOne;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ranking materializado de popularidad de planes (tabla "planes_popularidad").
+ * Guarda cuántos clientes tiene asignado cada plan; lo recalcula
+ * periódicamente {@code PlanPopularidadService} para que el ranking no
+ * recorra la tabla de clientes en cada consulta.
+ */
+@Entity
+@Table(name = "planes_popularidad")
+@Data
+@NoArgsConstructor
+public class PlanPopularidad {
+
+    /**
+     * Id del plan (clave primaria y foránea a "planes").
+     */
+    @Id
+    @Column(name = "plan_id")
+    private Integer planId;
+
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "plan_id", insertable = false, updatable = false)
+    private Plan plan;
+
+    /**
+     * Número de clientes con este plan en el último recálculo.
+     */
+    @Column(name = "total_clientes", nullable = false)
+    private long totalClientes;
+
+    /**
+     * Fecha y hora del último recálculo que cambió el conteo.
+     */
+    @Column(name = "fecha_actualizacion")
+    private LocalDateTime fechaActualizacion;
+}
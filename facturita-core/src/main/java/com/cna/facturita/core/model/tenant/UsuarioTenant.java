@@ -8,6 +8,7 @@ import java.time.LocalDateTime;
 
 @Entity(name = "t_usuario")
 @Table(name = "t_usuarios")
+@EntityListeners(UsuarioTenantListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
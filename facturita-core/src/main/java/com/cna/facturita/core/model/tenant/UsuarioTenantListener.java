@@ -0,0 +1,58 @@
+package com.cna.facturita.core.model.tenant;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Publica {@link UsuarioTenantModificadoEvent} tras confirmar cualquier alta,
+ * modificación o baja de un {@link UsuarioTenant}, sea cual sea el código que
+ * lo escribe, para que la capa de seguridad descarte sus caches.
+ */
+@Component
+public class UsuarioTenantListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public UsuarioTenantListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onGuardado(UsuarioTenant usuario) {
+        publishAfterCommit(new UsuarioTenantModificadoEvent(usuario.getEmail(),
+                usuario.isEstado() && !Boolean.TRUE.equals(usuario.getBloqueado())));
+    }
+
+    @PostRemove
+    public void onEliminado(UsuarioTenant usuario) {
+        publishAfterCommit(new UsuarioTenantModificadoEvent(usuario.getEmail(), false));
+    }
+
+    private void publishAfterCommit(UsuarioTenantModificadoEvent event) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eventPublisher.publishEvent(event);
+                }
+            });
+        } else {
+            eventPublisher.publishEvent(event);
+        }
+    }
+
+    /**
+     * Usuario de tenant creado, modificado o eliminado en el tenant actual.
+     *
+     * @param email  Email del usuario tras la escritura
+     * @param activo {@code false} si quedó inactivo, bloqueado o eliminado
+     */
+    public record UsuarioTenantModificadoEvent(String email, boolean activo) {
+    }
+}
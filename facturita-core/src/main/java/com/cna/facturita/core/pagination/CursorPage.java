@@ -0,0 +1,35 @@
+package com.cna.facturita.core.pagination;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Página obtenida por keyset (seek): en lugar de número de página y total,
+ * lleva el cursor opaco para pedir la página siguiente.
+ *
+ * @param content    Elementos de la página
+ * @param size       Tamaño de página solicitado
+ * @param hasNext    Indica si hay más elementos después de esta página
+ * @param nextCursor Cursor de la página siguiente, o {@code null} si es la última
+ */
+public record CursorPage<T>(List<T> content, int size, boolean hasNext, String nextCursor) {
+
+    /**
+     * Construye la página a partir de {@code size + 1} filas leídas: la fila
+     * extra solo indica que existe una página siguiente.
+     *
+     * @param rows     Filas leídas (hasta {@code size + 1})
+     * @param size     Tamaño de página
+     * @param cursorOf Cursor de una fila (el de la última fila devuelta)
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int size, Function<T, KeysetCursor> cursorOf) {
+        boolean hasNext = rows.size() > size;
+        List<T> content = hasNext ? List.copyOf(rows.subList(0, size)) : List.copyOf(rows);
+        String nextCursor = hasNext ? cursorOf.apply(content.get(content.size() - 1)).encode() : null;
+        return new CursorPage<>(content, size, hasNext, nextCursor);
+    }
+
+    public <R> CursorPage<R> map(Function<T, R> mapper) {
+        return new CursorPage<>(content.stream().map(mapper).toList(), size, hasNext, nextCursor);
+    }
+}
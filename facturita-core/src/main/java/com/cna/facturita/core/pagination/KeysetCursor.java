@@ -0,0 +1,60 @@
+package com.cna.facturita.core.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Posición de una fila en un orden (clave de orden, id), serializada como
+ * cursor opaco en Base64 URL-safe. La clave es opcional: los listados
+ * ordenados solo por id usan {@code null}.
+ *
+ * @param key Valor de la clave de orden de la última fila, o {@code null}
+ * @param id  Id de la última fila (desempate); las claves de las entidades
+ *            son {@code Integer}
+ */
+public record KeysetCursor(String key, int id) {
+
+    /** Tamaño máximo de página aceptado por los listados con cursor. */
+    public static final int MAX_SIZE = 100;
+
+    private static final char SEPARADOR = '\n';
+
+    public static KeysetCursor ofId(int id) {
+        return new KeysetCursor(null, id);
+    }
+
+    public String encode() {
+        String raw = key == null ? Integer.toString(id) : id + String.valueOf(SEPARADOR) + key;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica un cursor recibido del cliente.
+     *
+     * @return el cursor, o {@code null} si {@code cursor} está vacío (primera página)
+     * @throws IllegalArgumentException si el cursor no es válido, incluido un
+     *                                  id fuera del rango de {@code int}
+     */
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.indexOf(SEPARADOR);
+            if (sep < 0) {
+                return ofId(Integer.parseInt(raw));
+            }
+            return new KeysetCursor(raw.substring(sep + 1), Integer.parseInt(raw.substring(0, sep)));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor de paginación inválido", e);
+        }
+    }
+
+    /**
+     * Limita el tamaño de página a [1, {@link #MAX_SIZE}].
+     */
+    public static int clampSize(int size) {
+        return Math.max(1, Math.min(size, MAX_SIZE));
+    }
+}
@@ -0,0 +1,27 @@
+package com.cna.facturita.core.repository;
+
+import com.cna.facturita.core.model.PlanPopularidad;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+public interface PlanPopularidadRepository extends JpaRepository<PlanPopularidad, Integer> {
+
+    /**
+     * Recalcula el ranking en una sola sentencia: un conteo agrupado de
+     * clientes por plan, insertado o actualizado sobre "planes_popularidad".
+     *
+     * @return filas insertadas o actualizadas
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO planes_popularidad (plan_id, total_clientes, fecha_actualizacion)
+            SELECT p.id, COUNT(c.id), now()
+            FROM planes p LEFT JOIN clientes c ON c.plan_id = p.id
+            GROUP BY p.id
+            ON CONFLICT (plan_id) DO UPDATE
+            SET total_clientes = EXCLUDED.total_clientes,
+                fecha_actualizacion = EXCLUDED.fecha_actualizacion
+            WHERE planes_popularidad.total_clientes <> EXCLUDED.total_clientes""", nativeQuery = true)
+    int refresh();
+}
@@ -1,15 +1,22 @@
 package com.cna.facturita.core.repository;
 
 import com.cna.facturita.core.model.Plan;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
 
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_CACHE_REGION;
+
 public interface PlanRepository extends JpaRepository<Plan, Integer> {
 
     /**
@@ -25,17 +32,80 @@ public interface PlanRepository extends JpaRepository<Plan, Integer> {
     /**
      * Obtiene todos los planes que no están bloqueados.
      */
+    @QueryHints({ @QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = Plan.QUERY_CACHE_REGION) })
     List<Plan> findByHabilitadoFalse();
 
     /**
      * Cuenta los planes que no están bloqueados.
      */
+    @QueryHints({ @QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = Plan.QUERY_CACHE_REGION) })
     long countByHabilitadoFalse();
 
     /**
-     * Busca planes por nombre (ignorando mayúsculas/minúsculas) con paginación.
+     * Obtiene todos los planes ordenados (consulta cacheada).
+     */
+    @Override
+    @QueryHints({ @QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = Plan.QUERY_CACHE_REGION) })
+    List<Plan> findAll(Sort sort);
+
+    /**
+     * Cuenta todos los planes (consulta cacheada).
+     */
+    @Override
+    @QueryHints({ @QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = Plan.QUERY_CACHE_REGION) })
+    long count();
+
+    /**
+     * Busca planes cuyo nombre normalizado coincide con el patrón LIKE (ya en
+     * minúsculas y con comodines escapados). Usa el índice trigram
+     * {@code idx_planes_nombre_trgm}.
+     */
+    @Query("SELECT p FROM Plan p WHERE lower(coalesce(p.nombre, '')) LIKE :patron")
+    Page<Plan> searchByNombre(@Param("patron") String patron, Pageable pageable);
+
+    /**
+     * Primera página por keyset en orden (nombre normalizado, id). Sin filtro
+     * es un recorrido de rango del índice {@code idx_planes_nombre_id}.
+     */
+    @Query("""
+            SELECT p FROM Plan p
+            ORDER BY lower(coalesce(p.nombre, '')), p.id""")
+    List<Plan> findFirstByNombre(Limit limit);
+
+    /**
+     * Página siguiente por keyset: filas posteriores a (nombre, id) del cursor.
+     */
+    @Query("""
+            SELECT p FROM Plan p
+            WHERE (lower(coalesce(p.nombre, '')), p.id) > (:nombre, :id)
+            ORDER BY lower(coalesce(p.nombre, '')), p.id""")
+    List<Plan> findNextByNombre(@Param("nombre") String nombre, @Param("id") Integer id, Limit limit);
+
+    /**
+     * Como {@link #findFirstByNombre}, filtrando por patrón LIKE sobre el
+     * nombre normalizado.
+     */
+    @Query("""
+            SELECT p FROM Plan p
+            WHERE lower(coalesce(p.nombre, '')) LIKE :patron
+            ORDER BY lower(coalesce(p.nombre, '')), p.id""")
+    List<Plan> findFirstByNombreLike(@Param("patron") String patron, Limit limit);
+
+    /**
+     * Como {@link #findNextByNombre}, filtrando por patrón LIKE sobre el
+     * nombre normalizado.
      */
-    Page<Plan> findByNombreContainingIgnoreCase(String nombre, Pageable pageable);
+    @Query("""
+            SELECT p FROM Plan p
+            WHERE (lower(coalesce(p.nombre, '')), p.id) > (:nombre, :id)
+              AND lower(coalesce(p.nombre, '')) LIKE :patron
+            ORDER BY lower(coalesce(p.nombre, '')), p.id""")
+    List<Plan> findNextByNombreLike(@Param("nombre") String nombre, @Param("id") Integer id,
+            @Param("patron") String patron, Limit limit);
 
     /**
      * Busca planes por rango de precio.
@@ -45,8 +115,9 @@ public interface PlanRepository extends JpaRepository<Plan, Integer> {
 
     /**
      * Obtiene los planes más populares (los que tienen más clientes asignados).
+     * Lee el ranking materializado en {@code planes_popularidad}, que mantiene
+     * {@code PlanPopularidadService}, en lugar de agrupar la tabla de clientes.
      */
-    @Query("SELECT p FROM Plan p LEFT JOIN Cliente c ON c.plan.id = p.id " +
-            "GROUP BY p.id ORDER BY COUNT(c.id) DESC")
-    List<Plan> findMostPopular();
+    @Query("SELECT p FROM PlanPopularidad pp JOIN pp.plan p ORDER BY pp.totalClientes DESC, p.id")
+    List<Plan> findMostPopular(Limit limit);
 }
\ No newline at end of file
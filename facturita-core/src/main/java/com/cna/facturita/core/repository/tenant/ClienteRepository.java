@@ -1,7 +1,59 @@
 package com.cna.facturita.core.repository.tenant;
 
 import com.cna.facturita.core.model.tenant.Cliente;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface ClienteRepository extends JpaRepository<Cliente, Integer> {
+import java.util.List;
+
+/**
+ * Los patrones LIKE se escapan con '\', el escape por defecto de PostgreSQL;
+ * no se declara ESCAPE para que el planificador pueda usar los índices de
+ * prefijo.
+ */
+public interface ClienteRepository extends JpaRepository<Cliente, Integer>, ClienteRepositoryCustom {
+
+    /** Proyección {@link ClienteResumen} común a los listados y búsquedas. */
+    String SELECT_RESUMEN = """
+            SELECT new com.cna.facturita.core.repository.tenant.ClienteResumen(
+                c.id, td.id, td.nombre, c.numero, c.nombre, c.nombreComercial,
+                d.id, d.nombre, c.email, c.telefono, c.estado)
+            FROM t_clientes c
+            JOIN c.tipoDocumentoIdentidad td
+            LEFT JOIN c.distrito d
+            """;
+
+    /**
+     * Búsqueda exacta por documento. Usa {@code idx_t_clientes_documento}.
+     */
+    @Query(SELECT_RESUMEN + """
+            WHERE td.id = :tipoDocumentoId AND c.numero = :numero
+            ORDER BY c.id""")
+    List<ClienteResumen> findResumenByDocumento(@Param("tipoDocumentoId") String tipoDocumentoId,
+            @Param("numero") String numero, Limit limit);
+
+    /**
+     * Clientes cuyo nombre normalizado empieza con el prefijo (patrón LIKE ya
+     * en minúsculas y escapado). Filtro y orden usan la collation
+     * {@code ucs_basic} (orden por bytes, como "C") para que el índice
+     * {@code idx_t_clientes_nombre_c_id} resuelva el prefijo y entregue las
+     * filas ya ordenadas, sin ordenar aparte.
+     */
+    @Query(SELECT_RESUMEN + """
+            WHERE collate(lower(c.nombre) as ucs_basic) LIKE :prefijo
+            ORDER BY collate(lower(c.nombre) as ucs_basic), c.id""")
+    List<ClienteResumen> findResumenByNombrePrefijo(@Param("prefijo") String prefijo, Limit limit);
+
+    /**
+     * Clientes cuyo nombre o nombre comercial normalizado contiene el texto
+     * (patrón LIKE ya en minúsculas y escapado). Usa los índices trigram
+     * {@code idx_t_clientes_nombre_trgm} e {@code idx_t_clientes_nombre_comercial_trgm}.
+     */
+    @Query(SELECT_RESUMEN + """
+            WHERE lower(c.nombre) LIKE :patron
+               OR lower(coalesce(c.nombreComercial, '')) LIKE :patron
+            ORDER BY lower(c.nombre), c.id""")
+    List<ClienteResumen> findResumenByNombreContiene(@Param("patron") String patron, Limit limit);
 }
@@ -0,0 +1,22 @@
+package com.cna.facturita.core.repository.tenant;
+
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+
+/**
+ * Consultas de clientes que se arman según los filtros recibidos.
+ */
+public interface ClienteRepositoryCustom {
+
+    /**
+     * Listado de clientes por keyset sobre el id. Solo se agregan al WHERE los
+     * filtros presentes ({@code null} = sin filtrar), de modo que cada
+     * combinación es una sentencia distinta cuyo plan (también el genérico
+     * que PostgreSQL usa tras varias ejecuciones preparadas) puede aprovechar
+     * los índices, como {@code idx_t_clientes_distrito_id}. Los patrones LIKE
+     * llegan ya normalizados.
+     */
+    List<ClienteResumen> findResumen(int afterId, String numero, String nombre, Boolean estado,
+            String distritoId, Limit limit);
+}
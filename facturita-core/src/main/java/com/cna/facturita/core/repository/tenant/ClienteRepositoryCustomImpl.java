@@ -0,0 +1,66 @@
+package com.cna.facturita.core.repository.tenant;
+
+import com.cna.facturita.core.model.tenant.Cliente;
+import com.cna.facturita.core.model.tenant.Distrito;
+import com.cna.facturita.core.model.tenant.TipoDocumentoIdentidad;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Limit;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Implementación de {@link ClienteRepositoryCustom} con Criteria API; la
+ * proyección es la misma que {@link ClienteRepository#SELECT_RESUMEN}.
+ */
+class ClienteRepositoryCustomImpl implements ClienteRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ClienteResumen> findResumen(int afterId, String numero, String nombre, Boolean estado,
+            String distritoId, Limit limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ClienteResumen> query = cb.createQuery(ClienteResumen.class);
+        Root<Cliente> c = query.from(Cliente.class);
+        Join<Cliente, TipoDocumentoIdentidad> td = c.join("tipoDocumentoIdentidad");
+        Join<Cliente, Distrito> d = c.join("distrito", JoinType.LEFT);
+
+        List<Predicate> where = new ArrayList<>();
+        where.add(cb.greaterThan(c.<Integer>get("id"), afterId));
+        if (numero != null) {
+            where.add(cb.like(c.<String>get("numero"), numero));
+        }
+        if (nombre != null) {
+            where.add(cb.like(cb.lower(c.<String>get("nombre")), nombre));
+        }
+        if (estado != null) {
+            where.add(cb.equal(c.get("estado"), estado));
+        }
+        if (distritoId != null) {
+            where.add(cb.equal(d.get("id"), distritoId));
+        }
+
+        query.select(cb.construct(ClienteResumen.class,
+                        c.get("id"), td.get("id"), td.get("nombre"), c.get("numero"), c.get("nombre"),
+                        c.get("nombreComercial"), d.get("id"), d.get("nombre"), c.get("email"),
+                        c.get("telefono"), c.get("estado")))
+                .where(where.toArray(Predicate[]::new))
+                .orderBy(cb.asc(c.get("id")));
+
+        TypedQuery<ClienteResumen> typed = entityManager.createQuery(query);
+        if (limit.isLimited()) {
+            typed.setMaxResults(limit.max());
+        }
+        return typed.getResultList();
+    }
+}
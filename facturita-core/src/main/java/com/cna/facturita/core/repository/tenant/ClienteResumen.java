@@ -0,0 +1,19 @@
+package com.cna.facturita.core.repository.tenant;
+
+/**
+ * Proyección de cliente para listados: solo las columnas que se muestran,
+ * leídas en una única consulta (sin cargar la entidad ni sus relaciones).
+ */
+public record ClienteResumen(
+        Integer id,
+        String tipoDocumentoIdentidadId,
+        String tipoDocumentoIdentidad,
+        String numero,
+        String nombre,
+        String nombreComercial,
+        String distritoId,
+        String distrito,
+        String email,
+        String telefono,
+        boolean estado) {
+}
@@ -0,0 +1,85 @@
+package com.cna.facturita.core.service;
+
+import com.cna.facturita.core.repository.PlanPopularidadRepository;
+import com.cna.facturita.core.service.PlanService.PlanesModificadosEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Mantiene el ranking materializado de popularidad de planes
+ * ({@code planes_popularidad}).
+ * <p>
+ * Los clientes se asignan a planes fuera de esta aplicación, así que el
+ * ranking se recalcula periódicamente con un único conteo agrupado. Un
+ * cambio de planes solo marca el ranking como pendiente: la tarea
+ * {@link #refreshPending} lo recalcula poco después fuera del hilo de la
+ * request, una sola vez por ráfaga de cambios.
+ */
+@Service
+public class PlanPopularidadService {
+
+    private static final Logger log = LoggerFactory.getLogger(PlanPopularidadService.class);
+
+    private final PlanPopularidadRepository planPopularidadRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicBoolean pendiente = new AtomicBoolean();
+
+    @Value("${facturita.planes.popularidad.enabled:true}")
+    private boolean enabled;
+
+    public PlanPopularidadService(PlanPopularidadRepository planPopularidadRepository,
+            PlatformTransactionManager transactionManager) {
+        this.planPopularidadRepository = planPopularidadRepository;
+        // Transacción propia, aislada de la del planificador
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Scheduled(initialDelayString = "${facturita.planes.popularidad.initial-delay:30s}",
+            fixedDelayString = "${facturita.planes.popularidad.refresh-interval:5m}")
+    public void scheduledRefresh() {
+        pendiente.set(false);
+        refresh();
+    }
+
+    /**
+     * Recalcula el ranking si hubo cambios de planes desde la última vez.
+     */
+    @Scheduled(fixedDelayString = "${facturita.planes.popularidad.debounce:5s}")
+    public void refreshPending() {
+        if (pendiente.getAndSet(false)) {
+            refresh();
+        }
+    }
+
+    @EventListener
+    public void onPlanesModificados(PlanesModificadosEvent event) {
+        pendiente.set(true);
+    }
+
+    /**
+     * Recalcula el ranking. Los errores se registran y no se propagan: el
+     * ranking anterior sigue siendo válido hasta el próximo intento.
+     */
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Integer cambios = transactionTemplate.execute(status -> planPopularidadRepository.refresh());
+            log.debug("[PlanPopularidadService] Ranking de planes recalculado: {} planes con cambios", cambios);
+        } catch (Exception e) {
+            log.warn("[PlanPopularidadService] No se pudo recalcular el ranking de planes: {}", e.getMessage());
+        }
+    }
+}
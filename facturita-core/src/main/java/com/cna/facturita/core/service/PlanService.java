@@ -1,32 +1,55 @@
 package com.cna.facturita.core.service;
 
 import com.cna.facturita.core.model.Plan;
+import com.cna.facturita.core.pagination.CursorPage;
+import com.cna.facturita.core.pagination.KeysetCursor;
 import com.cna.facturita.core.repository.PlanRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 
 /**
  * Servicio para la gestión de planes de suscripción.
+ * <p>
+ * Las lecturas se sirven desde el cache de segundo nivel de Hibernate
+ * (entidades y consultas de {@link Plan}); cada modificación descarta las
+ * regiones de planes al confirmar la transacción.
  */
 @Service
 @Transactional
 public class PlanService {
 
     private static final Logger log = LoggerFactory.getLogger(PlanService.class);
+
+    /** Tamaño máximo del ranking de planes populares. */
+    public static final int MAX_POPULARES = 50;
     
     private final PlanRepository planRepository;
+    private final SessionFactory sessionFactory;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public PlanService(PlanRepository planRepository) {
+    public PlanService(PlanRepository planRepository, EntityManagerFactory entityManagerFactory,
+            ApplicationEventPublisher eventPublisher) {
         this.planRepository = planRepository;
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -87,6 +110,7 @@ public class PlanService {
         
         try {
             Plan savedPlan = planRepository.save(plan);
+            evictCacheAfterCommit();
             log.info("Plan creado exitosamente con ID: {}", savedPlan.getId());
             return savedPlan;
         } catch (DataIntegrityViolationException e) {
@@ -124,6 +148,7 @@ public class PlanService {
 
         try {
             Plan updatedPlan = planRepository.save(existingPlan);
+            evictCacheAfterCommit();
             log.info("Plan actualizado exitosamente: {}", updatedPlan.getId());
             return updatedPlan;
         } catch (DataIntegrityViolationException e) {
@@ -144,6 +169,7 @@ public class PlanService {
 
         try {
             planRepository.deleteById(id);
+            evictCacheAfterCommit();
             log.info("Plan eliminado exitosamente: {}", id);
         } catch (DataIntegrityViolationException e) {
             log.error("Error al eliminar plan (puede estar en uso): {}", e.getMessage());
@@ -162,6 +188,7 @@ public class PlanService {
 
         plan.setHabilitado(!plan.isHabilitado());
         Plan updatedPlan = planRepository.save(plan);
+        evictCacheAfterCommit();
 
         log.info("Plan {} {}", id, updatedPlan.isHabilitado() ? "habilitado" : "deshabilitado");
         return updatedPlan;
@@ -178,7 +205,65 @@ public class PlanService {
             return findAll(pageable);
         }
         
-        return planRepository.findByNombreContainingIgnoreCase(searchTerm.trim(), pageable);
+        return planRepository.searchByNombre(likePattern(searchTerm), pageable);
+    }
+
+    /**
+     * Lista planes por keyset en orden (nombre normalizado, id), sin COUNT ni
+     * OFFSET: el costo de cada página es proporcional a su tamaño.
+     *
+     * @param searchTerm Texto a buscar en el nombre (opcional)
+     * @param cursor     Cursor devuelto por la página anterior (vacío para la primera)
+     * @param size       Tamaño de página
+     * @throws IllegalArgumentException si el cursor no es válido
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<Plan> findByCursor(String searchTerm, String cursor, int size) {
+        int pageSize = KeysetCursor.clampSize(size);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        String patron = searchTerm == null || searchTerm.isBlank() ? null : likePattern(searchTerm);
+        log.debug("Listando planes por cursor: término '{}', tamaño {}", searchTerm, pageSize);
+
+        Limit limit = Limit.of(pageSize + 1);
+        List<Plan> rows;
+        if (after == null) {
+            rows = patron == null
+                    ? planRepository.findFirstByNombre(limit)
+                    : planRepository.findFirstByNombreLike(patron, limit);
+        } else {
+            String nombre = after.key() != null ? after.key() : "";
+            rows = patron == null
+                    ? planRepository.findNextByNombre(nombre, after.id(), limit)
+                    : planRepository.findNextByNombreLike(nombre, after.id(), patron, limit);
+        }
+        return CursorPage.of(rows, pageSize, plan -> new KeysetCursor(sortKey(plan), plan.getId()));
+    }
+
+    /**
+     * Clave de orden de un plan; coincide con {@code lower(coalesce(nombre, ''))}.
+     */
+    private static String sortKey(Plan plan) {
+        return plan.getNombre() != null ? plan.getNombre().toLowerCase(Locale.ROOT) : "";
+    }
+
+    /**
+     * Patrón LIKE "contiene" en minúsculas, escapando los comodines del usuario.
+     */
+    private static String likePattern(String searchTerm) {
+        String term = searchTerm.trim().toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + term + "%";
+    }
+
+    /**
+     * Obtiene los planes con más clientes, según el ranking materializado.
+     * {@code limit} se acota a [1, {@link #MAX_POPULARES}].
+     */
+    @Transactional(readOnly = true)
+    public List<Plan> findMostPopular(int limit) {
+        return planRepository.findMostPopular(Limit.of(Math.max(1, Math.min(limit, MAX_POPULARES))));
     }
 
     /**
@@ -196,4 +281,54 @@ public class PlanService {
     public long countActive() {
         return planRepository.countByHabilitadoFalse();
     }
+
+    /**
+     * Aciertos/fallos del cache de segundo nivel de planes (entidades y consultas).
+     * Los contadores quedan en cero salvo con
+     * {@code facturita.planes.cache.statistics=true}.
+     */
+    @Transactional(readOnly = true)
+    public PlanCacheStats getCacheStats() {
+        Statistics statistics = sessionFactory.getStatistics();
+        CacheRegionStatistics entidades = statistics.getDomainDataRegionStatistics(Plan.CACHE_REGION);
+        CacheRegionStatistics consultas = statistics.getQueryRegionStatistics(Plan.QUERY_CACHE_REGION);
+        return new PlanCacheStats(statistics.isStatisticsEnabled(),
+                entidades != null ? entidades.getHitCount() : 0, entidades != null ? entidades.getMissCount() : 0,
+                consultas != null ? consultas.getHitCount() : 0, consultas != null ? consultas.getMissCount() : 0);
+    }
+
+    /**
+     * Descarta las regiones de planes cuando la transacción confirma, para que
+     * ninguna lectura concurrente vuelva a cachear el estado anterior, y
+     * publica {@link PlanesModificadosEvent} para los caches de respuestas.
+     */
+    private void evictCacheAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictCache();
+                }
+            });
+        } else {
+            evictCache();
+        }
+    }
+
+    private void evictCache() {
+        sessionFactory.getCache().evictEntityData(Plan.class);
+        sessionFactory.getCache().evictQueryRegion(Plan.QUERY_CACHE_REGION);
+        log.debug("Cache de planes descartado");
+        eventPublisher.publishEvent(new PlanesModificadosEvent());
+    }
+
+    public record PlanCacheStats(boolean estadisticasHabilitadas, long entidadHits, long entidadMisses,
+            long consultaHits, long consultaMisses) {
+    }
+
+    /**
+     * Evento publicado tras confirmar cualquier alta, modificación o baja de planes.
+     */
+    public record PlanesModificadosEvent() {
+    }
 }
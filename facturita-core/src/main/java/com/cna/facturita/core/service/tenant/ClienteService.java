@@ -1,10 +1,20 @@
 package com.cna.facturita.core.service.tenant;
 
 import com.cna.facturita.core.model.tenant.Cliente;
+import com.cna.facturita.core.pagination.CursorPage;
+import com.cna.facturita.core.pagination.KeysetCursor;
 import com.cna.facturita.core.repository.tenant.ClienteRepository;
+import com.cna.facturita.core.repository.tenant.ClienteResumen;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class ClienteService {
@@ -18,6 +28,82 @@ public class ClienteService {
         return clienteRepository.findAll();
     }
 
+    /**
+     * Listado paginado por cursor (keyset sobre id) de clientes como
+     * {@link ClienteResumen}.
+     *
+     * @param numero     Prefijo del número de documento (opcional)
+     * @param nombre     Texto contenido en el nombre (opcional)
+     * @param estado     Estado del cliente (opcional)
+     * @param distritoId Distrito (opcional)
+     * @param cursor     Cursor de la página anterior (vacío para la primera)
+     * @param size       Tamaño de página
+     * @throws IllegalArgumentException si el cursor no es válido
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ClienteResumen> findResumen(String numero, String nombre, Boolean estado, String distritoId,
+            String cursor, int size) {
+        int pageSize = KeysetCursor.clampSize(size);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        List<ClienteResumen> rows = clienteRepository.findResumen(
+                after != null ? after.id() : 0,
+                isBlank(numero) ? null : escapeLike(numero.trim()) + "%",
+                isBlank(nombre) ? null : "%" + escapeLike(nombre.trim().toLowerCase(Locale.ROOT)) + "%",
+                estado,
+                isBlank(distritoId) ? null : distritoId.trim(),
+                Limit.of(pageSize + 1));
+        return CursorPage.of(rows, pageSize, c -> KeysetCursor.ofId(c.id()));
+    }
+
+    /**
+     * Busca un cliente por tipo y número de documento (RUC, DNI, ...).
+     */
+    @Transactional(readOnly = true)
+    public Optional<ClienteResumen> findByDocumento(String tipoDocumentoId, String numero) {
+        if (isBlank(tipoDocumentoId) || isBlank(numero)) {
+            return Optional.empty();
+        }
+        return clienteRepository.findResumenByDocumento(tipoDocumentoId.trim(), numero.trim(), Limit.of(1))
+                .stream().findFirst();
+    }
+
+    /**
+     * Búsqueda incremental por nombre para la emisión de comprobantes: primero
+     * los clientes cuyo nombre empieza con el texto y, si faltan resultados y
+     * el texto tiene al menos 3 caracteres, los que lo contienen en el nombre o
+     * nombre comercial (índices trigram).
+     *
+     * @param texto Texto escrito por el usuario (mínimo 2 caracteres)
+     * @param limit Cantidad máxima de resultados
+     */
+    @Transactional(readOnly = true)
+    public List<ClienteResumen> searchByNombre(String texto, int limit) {
+        String term = texto == null ? "" : texto.trim().toLowerCase(Locale.ROOT);
+        if (term.length() < 2) {
+            return List.of();
+        }
+        int max = KeysetCursor.clampSize(limit);
+        String escapado = escapeLike(term);
+
+        List<ClienteResumen> resultado = new ArrayList<>(
+                clienteRepository.findResumenByNombrePrefijo(escapado + "%", Limit.of(max)));
+        if (resultado.size() >= max || term.length() < 3) {
+            return resultado;
+        }
+        Set<Integer> ids = new HashSet<>();
+        resultado.forEach(c -> ids.add(c.id()));
+        for (ClienteResumen c : clienteRepository.findResumenByNombreContiene("%" + escapado + "%",
+                Limit.of(max + resultado.size()))) {
+            if (resultado.size() >= max) {
+                break;
+            }
+            if (ids.add(c.id())) {
+                resultado.add(c);
+            }
+        }
+        return resultado;
+    }
+
     public Optional<Cliente> findById(Integer id) {
         return clienteRepository.findById(id);
     }
@@ -29,4 +115,12 @@ public class ClienteService {
     public void deleteById(Integer id) {
         clienteRepository.deleteById(id);
     }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
 }
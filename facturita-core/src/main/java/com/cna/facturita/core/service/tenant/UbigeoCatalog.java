@@ -0,0 +1,411 @@
+package com.cna.facturita.core.service.tenant;
+
+import com.cna.facturita.core.model.tenant.Departamento;
+import com.cna.facturita.core.model.tenant.Distrito;
+import com.cna.facturita.core.model.tenant.Provincia;
+import com.cna.facturita.core.repository.tenant.DepartamentoRepository;
+import com.cna.facturita.core.repository.tenant.DistritoRepository;
+import com.cna.facturita.core.repository.tenant.ProvinciaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * Catálogo de ubigeo (departamentos, provincias y distritos) en memoria.
+ * <p>
+ * El catálogo es nacional y de solo lectura: se carga una vez por nodo (en
+ * el primer uso o con {@link #reload}) en arreglos inmutables. Cada nivel
+ * guarda sus elementos ordenados por (padre, código), de modo que los hijos
+ * de un elemento son un rango contiguo ({@link #provincias(String)},
+ * {@link #distritos(String)}); la búsqueda por código y por prefijo de nombre
+ * es binaria sobre índices ordenados. {@link #getVersion()} cambia solo
+ * cuando una recarga trae datos distintos y sirve para versionar respuestas
+ * serializadas ({@link #listado} entrega versión y lista juntas).
+ * <p>
+ * Mientras el catálogo esté vacío (datos iniciales aún no cargados o error
+ * de lectura) se vuelve a intentar como mucho una vez cada
+ * {@code facturita.ubigeo.empty-retry}.
+ * <p>
+ * Las tablas se resuelven por {@code search_path} al esquema compartido de
+ * referencia, por lo que el catálogo es el mismo para todos los tenants.
+ */
+@Service
+public class UbigeoCatalog {
+
+    private static final Logger log = LoggerFactory.getLogger(UbigeoCatalog.class);
+
+    private final DepartamentoRepository departamentoRepository;
+    private final ProvinciaRepository provinciaRepository;
+    private final DistritoRepository distritoRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    /** Lock de recarga; no usa el monitor del objeto para no fijar hilos virtuales durante la lectura. */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @Value("${facturita.ubigeo.empty-retry:30s}")
+    private Duration emptyRetry;
+
+    private volatile Snapshot snapshot;
+
+    /** {@link System#nanoTime()} del último intento que dejó el catálogo vacío. */
+    private volatile long ultimoIntentoVacio;
+
+    public UbigeoCatalog(DepartamentoRepository departamentoRepository, ProvinciaRepository provinciaRepository,
+            DistritoRepository distritoRepository, PlatformTransactionManager transactionManager) {
+        this.departamentoRepository = departamentoRepository;
+        this.provinciaRepository = provinciaRepository;
+        this.distritoRepository = distritoRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    public List<UbigeoItem> departamentos() {
+        return snapshot().departamentos.all();
+    }
+
+    public List<UbigeoItem> provincias() {
+        return snapshot().provincias.all();
+    }
+
+    public List<UbigeoItem> distritos() {
+        return snapshot().distritos.all();
+    }
+
+    /**
+     * Provincias de un departamento, o lista vacía si no existe.
+     */
+    public List<UbigeoItem> provincias(String departamentoId) {
+        Snapshot current = snapshot();
+        return current.provincias.children(current.departamentos.indexOf(departamentoId));
+    }
+
+    /**
+     * Distritos de una provincia, o lista vacía si no existe.
+     */
+    public List<UbigeoItem> distritos(String provinciaId) {
+        Snapshot current = snapshot();
+        return current.distritos.children(current.provincias.indexOf(provinciaId));
+    }
+
+    public Optional<UbigeoItem> departamento(String id) {
+        return snapshot().departamentos.find(id);
+    }
+
+    public Optional<UbigeoItem> provincia(String id) {
+        return snapshot().provincias.find(id);
+    }
+
+    public Optional<UbigeoItem> distrito(String id) {
+        return snapshot().distritos.find(id);
+    }
+
+    /**
+     * Distritos cuyo nombre (sin tildes ni mayúsculas) empieza con el texto.
+     */
+    public List<UbigeoItem> buscarDistritos(String prefijo, int limit) {
+        return snapshot().distritos.byNamePrefix(prefijo, limit);
+    }
+
+    /**
+     * Listado completo de un nivel junto con la versión del catálogo del que
+     * proviene, leídos de la misma instantánea.
+     */
+    public Listado listado(Nivel nivel) {
+        Snapshot current = snapshot();
+        Level level = switch (nivel) {
+            case DEPARTAMENTOS -> current.departamentos;
+            case PROVINCIAS -> current.provincias;
+            case DISTRITOS -> current.distritos;
+        };
+        return new Listado(current.version, level.all());
+    }
+
+    /**
+     * Versión del catálogo cargado; cambia cuando una recarga trae datos
+     * distintos.
+     */
+    public long getVersion() {
+        return snapshot().version;
+    }
+
+    /**
+     * Vuelve a leer el catálogo de la base de datos y lo publica atómicamente.
+     * Si el contenido no cambió se conserva la versión anterior.
+     */
+    public void reload() {
+        lock.lock();
+        try {
+            reloadLocked();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Catálogo actual; lo carga en el primer uso. Un catálogo vacío se vuelve
+     * a leer cuando vence {@code emptyRetry}; mientras tanto se sirve vacío
+     * sin tomar el lock.
+     */
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current != null && !(current.isEmpty() && reintentoVencido())) {
+            return current;
+        }
+        lock.lock();
+        try {
+            current = snapshot;
+            if (current == null || (current.isEmpty() && reintentoVencido())) {
+                try {
+                    reloadLocked();
+                } catch (RuntimeException e) {
+                    log.warn("[UbigeoCatalog] No se pudo cargar el catálogo de ubigeo: {}", e.getMessage());
+                    if (snapshot == null) {
+                        snapshot = Snapshot.EMPTY;
+                    }
+                    ultimoIntentoVacio = System.nanoTime();
+                }
+                current = snapshot;
+            }
+            return current;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean reintentoVencido() {
+        return System.nanoTime() - ultimoIntentoVacio >= emptyRetry.toNanos();
+    }
+
+    private void reloadLocked() {
+        Snapshot previous = snapshot;
+        long version = previous != null ? previous.version + 1 : 1;
+        Snapshot loaded = transactionTemplate.execute(status -> load(version));
+        if (previous != null && previous.sameContent(loaded)) {
+            log.debug("[UbigeoCatalog] Catálogo de ubigeo sin cambios (versión {})", previous.version);
+        } else {
+            snapshot = loaded;
+            log.info("[UbigeoCatalog] Catálogo de ubigeo cargado (versión {}): {} departamentos, {} provincias, {} distritos",
+                    loaded.version, loaded.departamentos.size(), loaded.provincias.size(), loaded.distritos.size());
+        }
+        if (snapshot.isEmpty()) {
+            ultimoIntentoVacio = System.nanoTime();
+        }
+    }
+
+    private Snapshot load(long version) {
+        List<Departamento> departamentos = departamentoRepository.findAll();
+        List<Provincia> provincias = provinciaRepository.findAll();
+        List<Distrito> distritos = distritoRepository.findAll();
+
+        // getId() sobre el proxy lazy del padre no inicializa la relación
+        Level deps = Level.build(departamentos, Departamento::getId, Departamento::getNombre, d -> -1, null);
+        Level provs = Level.build(provincias, Provincia::getId, Provincia::getNombre,
+                p -> deps.indexOf(p.getDepartamento() != null ? p.getDepartamento().getId() : null), deps);
+        Level dists = Level.build(distritos, Distrito::getId, Distrito::getNombre,
+                d -> provs.indexOf(d.getProvincia() != null ? d.getProvincia().getId() : null), provs);
+
+        return new Snapshot(version, deps, provs, dists);
+    }
+
+    private static String normalize(String value) {
+        String sinTildes = Normalizer.normalize(value, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return sinTildes.toLowerCase(Locale.ROOT).trim();
+    }
+
+    /**
+     * Elemento del catálogo en forma plana.
+     *
+     * @param id      Código de ubigeo
+     * @param nombre  Nombre
+     * @param padreId Código del departamento (provincias) o provincia (distritos)
+     */
+    public record UbigeoItem(String id, String nombre, String padreId) {
+    }
+
+    /** Niveles de la jerarquía para {@link #listado}. */
+    public enum Nivel {
+        DEPARTAMENTOS, PROVINCIAS, DISTRITOS
+    }
+
+    /**
+     * Listado completo de un nivel.
+     *
+     * @param version Versión del catálogo del que proviene
+     * @param items   Elementos del nivel
+     */
+    public record Listado(long version, List<UbigeoItem> items) {
+    }
+
+    private record Snapshot(long version, Level departamentos, Level provincias, Level distritos) {
+
+        /** Catálogo vacío publicado cuando la primera carga falla. */
+        static final Snapshot EMPTY = new Snapshot(0, Level.EMPTY, Level.EMPTY, Level.EMPTY);
+
+        boolean isEmpty() {
+            return distritos.size() == 0;
+        }
+
+        boolean sameContent(Snapshot other) {
+            return departamentos.items.equals(other.departamentos.items)
+                    && provincias.items.equals(other.provincias.items)
+                    && distritos.items.equals(other.distritos.items);
+        }
+    }
+
+    /**
+     * Un nivel de la jerarquía, ordenado por (índice del padre, código): los
+     * hijos de cada padre ocupan un rango contiguo.
+     */
+    private static final class Level {
+
+        static final Level EMPTY = new Level(new String[0], new String[0], new int[0], null);
+
+        private final String[] ids;
+        /** Posición en la que empiezan los hijos de cada padre (longitud padres + 1). */
+        private final int[] childStart;
+        /** Índices ordenados por código, para búsqueda binaria. */
+        private final int[] byId;
+        /** Índices ordenados por nombre normalizado, para búsqueda por prefijo. */
+        private final int[] byName;
+        private final String[] normalizedNames;
+        private final List<UbigeoItem> items;
+
+        private Level(String[] ids, String[] nombres, int[] parent, Level parents) {
+            this.ids = ids;
+            int n = ids.length;
+            int parentCount = parents != null ? parents.size() : 0;
+
+            // parent[] está ordenado; los huérfanos (parentCount) quedan al final
+            childStart = new int[parentCount + 1];
+            int p = 0;
+            for (int i = 0; i < n && p < parentCount; i++) {
+                while (p < parent[i] && p < parentCount) {
+                    childStart[++p] = i;
+                }
+            }
+            while (p < parentCount) {
+                childStart[++p] = n;
+            }
+
+            byId = IntStream.range(0, n).boxed()
+                    .sorted(Comparator.comparing(i -> ids[i]))
+                    .mapToInt(Integer::intValue).toArray();
+            normalizedNames = Arrays.stream(nombres).map(UbigeoCatalog::normalize).toArray(String[]::new);
+            byName = IntStream.range(0, n).boxed()
+                    .sorted(Comparator.<Integer, String>comparing(i -> normalizedNames[i]).thenComparing(i -> ids[i]))
+                    .mapToInt(Integer::intValue).toArray();
+
+            List<UbigeoItem> list = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                String padreId = parents != null && parent[i] < parentCount ? parents.ids[parent[i]] : null;
+                list.add(new UbigeoItem(ids[i], nombres[i], padreId));
+            }
+            items = List.copyOf(list);
+        }
+
+        static <T> Level build(List<T> rows, Function<T, String> id, Function<T, String> nombre,
+                Function<T, Integer> parentIndex, Level parents) {
+            int parentCount = parents != null ? parents.size() : 0;
+            record Row(String id, String nombre, int parent) {
+            }
+            Row[] sorted = rows.stream()
+                    .map(r -> {
+                        int p = parentIndex.apply(r);
+                        return new Row(id.apply(r), nombre.apply(r), p < 0 ? parentCount : p);
+                    })
+                    .sorted(Comparator.comparingInt(Row::parent).thenComparing(Row::id))
+                    .toArray(Row[]::new);
+            int n = sorted.length;
+            String[] ids = new String[n];
+            String[] nombres = new String[n];
+            int[] parent = new int[n];
+            for (int i = 0; i < n; i++) {
+                ids[i] = sorted[i].id();
+                nombres[i] = sorted[i].nombre();
+                parent[i] = sorted[i].parent();
+            }
+            return new Level(ids, nombres, parent, parents);
+        }
+
+        int size() {
+            return ids.length;
+        }
+
+        int indexOf(String id) {
+            if (id == null) {
+                return -1;
+            }
+            int lo = 0;
+            int hi = byId.length - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                int cmp = ids[byId[mid]].compareTo(id);
+                if (cmp < 0) {
+                    lo = mid + 1;
+                } else if (cmp > 0) {
+                    hi = mid - 1;
+                } else {
+                    return byId[mid];
+                }
+            }
+            return -1;
+        }
+
+        Optional<UbigeoItem> find(String id) {
+            int i = indexOf(id);
+            return i < 0 ? Optional.empty() : Optional.of(items.get(i));
+        }
+
+        List<UbigeoItem> all() {
+            return items;
+        }
+
+        List<UbigeoItem> children(int parentIdx) {
+            if (parentIdx < 0 || parentIdx + 1 >= childStart.length) {
+                return List.of();
+            }
+            return items.subList(childStart[parentIdx], childStart[parentIdx + 1]);
+        }
+
+        List<UbigeoItem> byNamePrefix(String prefijo, int limit) {
+            if (prefijo == null || prefijo.isBlank() || limit <= 0) {
+                return List.of();
+            }
+            String key = normalize(prefijo);
+            int lo = 0;
+            int hi = byName.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (normalizedNames[byName[mid]].compareTo(key) < 0) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            List<UbigeoItem> result = new ArrayList<>(Math.min(limit, 16));
+            for (int k = lo; k < byName.length && result.size() < limit; k++) {
+                int i = byName[k];
+                if (!normalizedNames[i].startsWith(key)) {
+                    break;
+                }
+                result.add(items.get(i));
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.cna.facturita.core.pagination;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeysetCursorTests {
+
+    @Test
+    void codificaYDecodificaConClave() {
+        KeysetCursor cursor = new KeysetCursor("plan básico", 42);
+
+        assertThat(KeysetCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void codificaYDecodificaSoloId() {
+        KeysetCursor cursor = KeysetCursor.ofId(Integer.MAX_VALUE);
+
+        assertThat(KeysetCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void claveConSeparadorOVaciaSeConserva() {
+        KeysetCursor conSalto = new KeysetCursor("a\nb", 7);
+        KeysetCursor vacia = new KeysetCursor("", 7);
+
+        assertThat(KeysetCursor.decode(conSalto.encode())).isEqualTo(conSalto);
+        assertThat(KeysetCursor.decode(vacia.encode())).isEqualTo(vacia);
+    }
+
+    @Test
+    void cursorCodificadoEsUrlSafe() {
+        String encoded = new KeysetCursor("??>>~~", 1).encode();
+
+        assertThat(encoded).doesNotContain("+", "/", "=");
+    }
+
+    @Test
+    void cursorVacioEsPrimeraPagina() {
+        assertThat(KeysetCursor.decode(null)).isNull();
+        assertThat(KeysetCursor.decode("")).isNull();
+        assertThat(KeysetCursor.decode("  ")).isNull();
+    }
+
+    @Test
+    void cursorInvalidoLanzaIllegalArgument() {
+        String sinNumero = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("abc\nplan".getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> KeysetCursor.decode("%%%"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> KeysetCursor.decode(sinNumero))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Cursor de paginación inválido");
+    }
+
+    @Test
+    void idFueraDeRangoIntEsInvalido() {
+        String conClave = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((Long.MAX_VALUE + "\nplan").getBytes(StandardCharsets.UTF_8));
+        String soloId = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("2147483648".getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> KeysetCursor.decode(conClave))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Cursor de paginación inválido");
+        assertThatThrownBy(() -> KeysetCursor.decode(soloId))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Cursor de paginación inválido");
+    }
+
+    @Test
+    void clampSizeLimitaAlRangoPermitido() {
+        assertThat(KeysetCursor.clampSize(0)).isEqualTo(1);
+        assertThat(KeysetCursor.clampSize(-5)).isEqualTo(1);
+        assertThat(KeysetCursor.clampSize(20)).isEqualTo(20);
+        assertThat(KeysetCursor.clampSize(1000)).isEqualTo(KeysetCursor.MAX_SIZE);
+    }
+}
@@ -0,0 +1,25 @@
+package com.cna.facturita.dto.request.auth;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+/**
+ * DTO para canjear o revocar un refresh token.
+ * <p>
+ * Utilizado en los endpoints de refresh y logout.
+ *
+ * @author Equipo Facturita
+ * @since 2025
+ */
+@Schema(description = "Petición con un refresh token")
+@Data
+public class RefreshTokenRequest {
+
+    /**
+     * Refresh token opaco recibido en el login o en el último refresh.
+     */
+    @NotBlank
+    @Schema(description = "Refresh token opaco")
+    private String refreshToken;
+}
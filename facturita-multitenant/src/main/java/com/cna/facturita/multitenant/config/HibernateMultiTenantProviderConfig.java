@@ -1,6 +1,5 @@
 package com.cna.facturita.multitenant.config;
 
-import org.hibernate.engine.jdbc.connections.spi.MultiTenantConnectionProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -10,7 +9,7 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 public class HibernateMultiTenantProviderConfig {
     @Bean
-    public MultiTenantConnectionProvider multiTenantConnectionProvider(MultiTenantDataSourceProvider provider) {
+    public MultiTenantConnectionProviderImpl multiTenantConnectionProvider(MultiTenantDataSourceProvider provider) {
         System.out.println("[DEBUG] multiTenantConnectionProvider bean creado, provider: " + (provider != null));
         MultiTenantConnectionProviderImpl impl = new MultiTenantConnectionProviderImpl();
         MultiTenantConnectionProviderImpl.setDataSourceProvider(provider);
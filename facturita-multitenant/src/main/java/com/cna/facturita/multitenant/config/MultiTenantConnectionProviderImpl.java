@@ -4,28 +4,71 @@ import org.hibernate.engine.jdbc.connections.spi.MultiTenantConnectionProvider;
 import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.Statement;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 import org.springframework.lang.NonNull;
 
 /**
  * Implementación de MultiTenantConnectionProvider para Hibernate
- * que delega en MultiTenantDataSourceProvider
+ * que delega en MultiTenantDataSourceProvider.
+ * <p>
+ * Con la estrategia {@link TenantStrategy#SHARED_POOL} las conexiones salen del
+ * pool compartido: se fija el {@code search_path} del tenant al tomarlas y se
+ * restablece al liberarlas.
  */
 
 public class MultiTenantConnectionProviderImpl
         implements MultiTenantConnectionProvider<String>, ApplicationContextAware {
     @Override
     public Connection getConnection(String tenantIdentifier) throws SQLException {
-        DataSource dataSource = dataSourceProvider.getDataSource(tenantIdentifier);
-        return dataSource.getConnection();
+        if (dataSourceProvider.isSharedPool()) {
+            return getSharedConnection(tenantIdentifier);
+        }
+        return dataSourceProvider.getConnection(tenantIdentifier);
     }
 
     @Override
     public void releaseConnection(String tenantIdentifier, Connection connection) throws SQLException {
-        if (connection != null && !connection.isClosed()) {
+        if (connection == null || connection.isClosed()) {
+            return;
+        }
+        if (dataSourceProvider.isSharedPool()) {
+            releaseSharedConnection(connection);
+            return;
+        }
+        connection.close();
+    }
+
+    /**
+     * Toma una conexión del pool compartido y fija el esquema del tenant (y el
+     * de referencia detrás).
+     */
+    private Connection getSharedConnection(String tenantIdentifier) throws SQLException {
+        String searchPath = dataSourceProvider.searchPath(tenantIdentifier);
+        Connection connection = dataSourceProvider.getSharedDataSource().getConnection();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET search_path TO " + searchPath);
+        } catch (SQLException e) {
             connection.close();
+            throw e;
+        }
+        return connection;
+    }
+
+    /**
+     * Restablece el search_path antes de devolver la conexión al pool compartido.
+     * Si no se puede restablecer, la conexión se descarta para no filtrar el
+     * esquema de un tenant a otro.
+     */
+    private void releaseSharedConnection(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("RESET search_path");
+        } catch (SQLException e) {
+            dataSourceProvider.getSharedDataSource().evictConnection(connection);
+            throw e;
         }
+        connection.close();
     }
 
     @Override
@@ -1,39 +1,225 @@
 package com.cna.facturita.multitenant.config;
 
 import com.cna.facturita.multitenant.context.TenantContext;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.jdbc.DataSourceBuilder;
 import org.springframework.stereotype.Component;
 
 import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
 
 /**
- * Maneja múltiples DataSources para cada tenant
+ * Maneja un pool de conexiones (HikariCP) por cada tenant.
+ * <p>
+ * Cada tenant obtiene su propio pool con tamaño mínimo/máximo configurable. La
+ * suma de los tamaños máximos de todos los pools nunca supera el presupuesto
+ * global de conexiones ({@code facturita.multitenant.pool.global-max-connections}):
+ * cuando no hay presupuesto disponible se cierran primero los pools ociosos
+ * menos usados recientemente. Los pools sin actividad durante
+ * {@code idle-ttl} se cierran automáticamente.
+ * <p>
+ * Mientras se pide una conexión el pool queda "arrendado" ({@link #getConnection(String)})
+ * y el desalojo no puede cerrarlo; los pools elegidos para cerrar se retiran
+ * bajo el lock y se cierran después de soltarlo, para no bloquear (ni fijar
+ * hilos virtuales) durante el cierre de Hikari.
+ * <p>
+ * Con la estrategia {@link TenantStrategy#SHARED_POOL} no se crean pools por
+ * tenant: todos los tenants comparten un único pool y el esquema se selecciona
+ * con {@code search_path} (ver {@link MultiTenantConnectionProviderImpl}).
+ * <p>
+ * En ambas estrategias el {@code search_path} es "tenant, esquema de
+ * referencia": los catálogos globales (ubigeo, países, tipos de documento)
+ * viven una sola vez en {@code facturita.multitenant.reference-schema}. En el
+ * esquema del tenant solo pueden existir, con el mismo nombre, las vistas que
+ * aplican sus overrides de nombre/estado sobre los tipos de documento y países
+ * compartidos.
+ * <p>
+ * Las conexiones "any" que Hibernate pide para metadatos salen de un pool
+ * administrativo pequeño y dedicado, de modo que nunca compiten con el tráfico
+ * de los tenants ni dependen de que algún tenant tenga ya un pool abierto.
  */
 @Component
 public class MultiTenantDataSourceProvider {
-    
+
     private static final Logger log = LoggerFactory.getLogger(MultiTenantDataSourceProvider.class);
-    
+
+    // Nombres de esquema aceptados al fijar el search_path (se citan con comillas dobles)
+    private static final Pattern SCHEMA_PATTERN = Pattern.compile("^[a-zA-Z0-9_-]{1,63}$");
+
     @Value("${spring.datasource.url}")
     private String baseUrl;
-    
+
     @Value("${spring.datasource.username}")
     private String username;
-    
+
     @Value("${spring.datasource.password}")
     private String password;
-    
+
     @Value("${spring.datasource.driver-class-name}")
     private String driverClassName;
-    
-    private final Map<String, DataSource> dataSources = new ConcurrentHashMap<>();
-    
+
+    @Value("${facturita.multitenant.strategy:SCHEMA}")
+    private TenantStrategy strategy;
+
+    @Value("${facturita.multitenant.reference-schema:referencia}")
+    private String referenceSchema;
+
+    @Value("${facturita.multitenant.shared-pool.max-size:20}")
+    private int sharedPoolMaxSize;
+
+    @Value("${facturita.multitenant.metadata-pool.max-size:2}")
+    private int metadataPoolMaxSize;
+
+    @Value("${facturita.multitenant.pool.min-idle:0}")
+    private int minIdle;
+
+    @Value("${facturita.multitenant.pool.max-size:5}")
+    private int maxPoolSize;
+
+    @Value("${facturita.multitenant.pool.global-max-connections:100}")
+    private int globalMaxConnections;
+
+    @Value("${facturita.multitenant.pool.connection-timeout:5s}")
+    private Duration connectionTimeout;
+
+    @Value("${facturita.multitenant.pool.idle-ttl:10m}")
+    private Duration idleTtl;
+
+    @Value("${facturita.multitenant.pool.eviction-interval:1m}")
+    private Duration evictionInterval;
+
+    private final Map<String, TenantPool> dataSources = new ConcurrentHashMap<>();
+
+    /** Protege la creación/retiro de pools y {@link #reservedConnections}. */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /** Conexiones reservadas (suma de maxPoolSize de los pools abiertos). */
+    private int reservedConnections;
+
+    private ScheduledExecutorService evictor;
+
+    /** Pool único usado con la estrategia SHARED_POOL. */
+    private HikariDataSource sharedDataSource;
+
+    /** Pool administrativo para las conexiones "any" de Hibernate. */
+    private HikariDataSource metadataDataSource;
+
+    private final LongAdder anyConnectionRequests = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        if (referenceSchema != null && !referenceSchema.isBlank()) {
+            quoteSchema(referenceSchema);
+        }
+        metadataDataSource = createMetadataDataSource();
+        if (strategy == TenantStrategy.SHARED_POOL) {
+            sharedDataSource = createSharedDataSource();
+            log.info("[MultiTenantDataSourceProvider] Estrategia SHARED_POOL: pool compartido de {} conexiones",
+                    sharedPoolMaxSize);
+            return;
+        }
+        evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "tenant-pool-evictor");
+            t.setDaemon(true);
+            return t;
+        });
+        long interval = evictionInterval.toMillis();
+        evictor.scheduleWithFixedDelay(this::evictIdlePools, interval, interval, TimeUnit.MILLISECONDS);
+        log.info("[MultiTenantDataSourceProvider] Pools por tenant: min-idle={}, max-size={}, presupuesto global={}, idle-ttl={}",
+                minIdle, maxPoolSize, globalMaxConnections, idleTtl);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (evictor != null) {
+            evictor.shutdownNow();
+        }
+        if (sharedDataSource != null) {
+            sharedDataSource.close();
+        }
+        if (metadataDataSource != null) {
+            metadataDataSource.close();
+        }
+        clearCache();
+    }
+
+    /**
+     * Estrategia de conexión configurada.
+     */
+    public TenantStrategy getStrategy() {
+        return strategy;
+    }
+
+    public boolean isSharedPool() {
+        return strategy == TenantStrategy.SHARED_POOL;
+    }
+
+    /**
+     * Pool compartido por todos los tenants (solo con SHARED_POOL).
+     */
+    public HikariDataSource getSharedDataSource() {
+        if (sharedDataSource == null) {
+            throw new IllegalStateException("El pool compartido solo está disponible con la estrategia SHARED_POOL");
+        }
+        return sharedDataSource;
+    }
+
+    /**
+     * Valida el identificador de tenant y lo devuelve citado para usarlo en
+     * sentencias como {@code SET search_path}.
+     */
+    public static String quoteSchema(String tenant) {
+        if (!isValidSchema(tenant)) {
+            throw new IllegalArgumentException("Identificador de tenant inválido: " + tenant);
+        }
+        return '"' + tenant + '"';
+    }
+
+    /**
+     * Indica si el nombre es un identificador de esquema aceptado: el único
+     * formato que puede llegar a un {@code search_path} o a la URL JDBC.
+     */
+    public static boolean isValidSchema(String tenant) {
+        return tenant != null && SCHEMA_PATTERN.matcher(tenant).matches();
+    }
+
+    /**
+     * Esquema compartido de catálogos de referencia, o vacío si está deshabilitado.
+     */
+    public String getReferenceSchema() {
+        return referenceSchema == null ? "" : referenceSchema.trim();
+    }
+
+    /**
+     * Lista de esquemas citados para {@code SET search_path}: el del tenant y,
+     * detrás, el de referencia.
+     */
+    public String searchPath(String tenant) {
+        String path = quoteSchema(tenant);
+        String reference = getReferenceSchema();
+        return reference.isEmpty() || reference.equals(tenant) ? path : path + ", " + quoteSchema(reference);
+    }
+
     /**
      * Obtiene el DataSource para el tenant actual
      */
@@ -42,68 +228,399 @@ public class MultiTenantDataSourceProvider {
         return getDataSource(tenant);
     }
     /**
-     * Obtiene cualquier DataSource disponible (por ejemplo, el primero configurado)
+     * Obtiene el DataSource administrativo usado por Hibernate para conexiones
+     * sin tenant (metadatos, validación de esquema, secuencias).
      */
     public DataSource getAnyDataSource() {
-        if (dataSources.isEmpty()) {
-            throw new IllegalStateException("No hay DataSources configurados");
-        }
-        return dataSources.values().iterator().next();
+        anyConnectionRequests.increment();
+        return metadataDataSource;
     }
-    
+
     /**
-     * Obtiene el DataSource para un tenant específico
+     * Obtiene el DataSource para un tenant específico.
+     * <p>
+     * El pool devuelto puede cerrarse por desalojo en cualquier momento; para
+     * pedir conexiones use {@link #getConnection(String)}, que lo protege
+     * mientras obtiene la conexión.
      */
     public DataSource getDataSource(String tenant) {
-        return dataSources.computeIfAbsent(tenant, this::createDataSource);
+        if (sharedDataSource != null) {
+            return sharedDataSource;
+        }
+        TenantPool pool = acquire(tenant);
+        pool.release();
+        return pool.dataSource;
+    }
+
+    /**
+     * Obtiene una conexión del pool del tenant. El pool queda arrendado hasta
+     * que la conexión sale de Hikari: a partir de ahí cuenta como activa y el
+     * desalojo tampoco lo cierra.
+     */
+    public Connection getConnection(String tenant) throws SQLException {
+        if (sharedDataSource != null) {
+            return sharedDataSource.getConnection();
+        }
+        TenantPool pool = acquire(tenant);
+        try {
+            return pool.dataSource.getConnection();
+        } finally {
+            pool.release();
+        }
+    }
+
+    /**
+     * Arrienda el pool del tenant, creándolo si hace falta. Si el pool
+     * encontrado se está retirando, se vuelve a resolver.
+     */
+    private TenantPool acquire(String tenant) {
+        while (true) {
+            TenantPool pool = dataSources.get(tenant);
+            if (pool == null) {
+                pool = createPool(tenant);
+            }
+            if (pool.tryAcquire()) {
+                pool.touch();
+                return pool;
+            }
+            // Retirado por el desalojo: sale del mapa bajo el lock, en breve
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Crea el pool de un tenant reservando su capacidad del presupuesto global.
+     * Si no hay presupuesto, retira pools ociosos (LRU) hasta liberar espacio;
+     * estos se cierran después de soltar el lock.
+     */
+    private TenantPool createPool(String tenant) {
+        List<TenantPool> retired = new ArrayList<>();
+        lock.lock();
+        try {
+            TenantPool existing = dataSources.get(tenant);
+            if (existing != null) {
+                return existing;
+            }
+            if (reservedConnections + maxPoolSize > globalMaxConnections) {
+                releaseBudget(reservedConnections + maxPoolSize - globalMaxConnections, retired);
+            }
+            if (reservedConnections + maxPoolSize > globalMaxConnections) {
+                log.warn("[MultiTenantDataSourceProvider] Presupuesto global de conexiones agotado ({}/{}), tenant rechazado: {}",
+                        reservedConnections, globalMaxConnections, tenant);
+                throw new IllegalStateException("Presupuesto global de conexiones agotado para el tenant: " + tenant);
+            }
+
+            log.info("Creando DataSource para tenant: {}", tenant);
+            TenantPool pool = new TenantPool(tenant, createDataSource(tenant));
+            dataSources.put(tenant, pool);
+            reservedConnections += maxPoolSize;
+            return pool;
+        } finally {
+            lock.unlock();
+            closePools(retired);
+        }
     }
-    
+
+    /**
+     * Retira pools sin conexiones activas ni arrendados, del menos al más
+     * recientemente usado, hasta liberar al menos {@code needed} conexiones
+     * del presupuesto. Se llama con el lock tomado.
+     */
+    private void releaseBudget(int needed, List<TenantPool> retired) {
+        List<TenantPool> candidates = new ArrayList<>(dataSources.values());
+        candidates.sort(Comparator.comparingLong(p -> p.lastAccess));
+        int released = 0;
+        for (TenantPool pool : candidates) {
+            if (released >= needed) {
+                break;
+            }
+            if (retire(pool)) {
+                log.info("[MultiTenantDataSourceProvider] Liberando pool ocioso del tenant {} por presupuesto global", pool.tenant);
+                retired.add(pool);
+                released += maxPoolSize;
+            }
+        }
+    }
+
+    /**
+     * Cierra los pools que no han tenido actividad durante {@code idle-ttl}.
+     */
+    void evictIdlePools() {
+        long limit = System.currentTimeMillis() - idleTtl.toMillis();
+        List<TenantPool> retired = new ArrayList<>();
+        lock.lock();
+        try {
+            for (TenantPool pool : dataSources.values()) {
+                if (pool.lastAccess < limit && retire(pool)) {
+                    log.info("[MultiTenantDataSourceProvider] Cerrando pool del tenant {} por inactividad", pool.tenant);
+                    retired.add(pool);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        closePools(retired);
+    }
+
+    /**
+     * Retira el pool del mapa y del presupuesto si nadie lo tiene arrendado
+     * ni tiene conexiones activas. Se llama con el lock tomado.
+     */
+    private boolean retire(TenantPool pool) {
+        if (!pool.tryRetire()) {
+            return false;
+        }
+        if (dataSources.remove(pool.tenant, pool)) {
+            reservedConnections -= maxPoolSize;
+        }
+        return true;
+    }
+
+    private void closePools(List<TenantPool> pools) {
+        for (TenantPool pool : pools) {
+            pool.dataSource.close();
+        }
+    }
+
     /**
      * Crea un nuevo DataSource para un tenant específico
      */
-    private DataSource createDataSource(String tenant) {
-        log.info("Creando DataSource para tenant: {}", tenant);
-        
+    HikariDataSource createDataSource(String tenant) {
+        quoteSchema(tenant);
         // Construir URL con el esquema específico del tenant
         String schemaUrl = buildUrlWithSchema(tenant);
-        
-        return DataSourceBuilder.create()
-                .url(schemaUrl)
-                .username(username)
-                .password(password)
-                .driverClassName(driverClassName)
-                .build();
+
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("tenant-" + tenant);
+        dataSource.setJdbcUrl(schemaUrl);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        dataSource.setDriverClassName(driverClassName);
+        dataSource.setMinimumIdle(Math.min(minIdle, maxPoolSize));
+        dataSource.setMaximumPoolSize(maxPoolSize);
+        dataSource.setConnectionTimeout(connectionTimeout.toMillis());
+        // Las conexiones ociosas por encima de minIdle se liberan antes que el pool completo
+        dataSource.setIdleTimeout(Math.max(10_000L, idleTtl.toMillis() / 2));
+        return dataSource;
     }
-    
+
+    /**
+     * Crea el pool administrativo sobre la URL configurada en
+     * {@code spring.datasource.url}. Es pequeño y no reserva presupuesto de
+     * tenants: Hibernate solo lo usa en el arranque y en operaciones puntuales.
+     */
+    private HikariDataSource createMetadataDataSource() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("tenant-metadata");
+        dataSource.setJdbcUrl(baseUrl);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        dataSource.setDriverClassName(driverClassName);
+        dataSource.setMinimumIdle(0);
+        dataSource.setMaximumPoolSize(metadataPoolMaxSize);
+        dataSource.setConnectionTimeout(connectionTimeout.toMillis());
+        dataSource.setIdleTimeout(Math.max(10_000L, idleTtl.toMillis() / 2));
+        return dataSource;
+    }
+
+    /**
+     * Crea el pool compartido sobre la URL base, sin esquema fijo.
+     */
+    private HikariDataSource createSharedDataSource() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("tenant-shared");
+        dataSource.setJdbcUrl(baseUrl.split("\\?")[0]);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        dataSource.setDriverClassName(driverClassName);
+        dataSource.setMinimumIdle(Math.min(minIdle, sharedPoolMaxSize));
+        dataSource.setMaximumPoolSize(sharedPoolMaxSize);
+        dataSource.setConnectionTimeout(connectionTimeout.toMillis());
+        return dataSource;
+    }
+
     /**
      * Construye la URL de conexión con el esquema específico del tenant
      */
     private String buildUrlWithSchema(String tenant) {
         // Obtener la URL base sin parámetros
         String baseUrlWithoutParams = baseUrl.split("\\?")[0];
-        
-        // Agregar el esquema específico del tenant
-        return baseUrlWithoutParams + "?currentSchema=" + tenant;
+
+        // Agregar el esquema específico del tenant y, detrás, el de referencia
+        String reference = getReferenceSchema();
+        String schemas = reference.isEmpty() || reference.equals(tenant) ? tenant : tenant + "," + reference;
+        return baseUrlWithoutParams + "?currentSchema=" + schemas;
     }
-    
+
     /**
      * Verifica si existe un DataSource para el tenant
      */
     public boolean hasDataSource(String tenant) {
         return dataSources.containsKey(tenant);
     }
-    
+
     /**
      * Obtiene todos los tenants configurados
      */
     public Set<String> getConfiguredTenants() {
         return dataSources.keySet();
     }
-    
+
+    /**
+     * Obtiene las métricas (activas/ociosas/en espera) de los pools abiertos.
+     */
+    public List<TenantPoolStats> getPoolStats() {
+        List<TenantPoolStats> stats = new ArrayList<>(dataSources.size() + 1);
+        if (sharedDataSource != null) {
+            HikariPoolMXBean mx = sharedDataSource.getHikariPoolMXBean();
+            stats.add(new TenantPoolStats(
+                    "*",
+                    mx != null ? mx.getActiveConnections() : 0,
+                    mx != null ? mx.getIdleConnections() : 0,
+                    mx != null ? mx.getThreadsAwaitingConnection() : 0,
+                    mx != null ? mx.getTotalConnections() : 0,
+                    sharedPoolMaxSize,
+                    0L));
+        }
+        for (TenantPool pool : dataSources.values()) {
+            HikariPoolMXBean mx = pool.dataSource.getHikariPoolMXBean();
+            stats.add(new TenantPoolStats(
+                    pool.tenant,
+                    mx != null ? mx.getActiveConnections() : 0,
+                    mx != null ? mx.getIdleConnections() : 0,
+                    mx != null ? mx.getThreadsAwaitingConnection() : 0,
+                    mx != null ? mx.getTotalConnections() : 0,
+                    maxPoolSize,
+                    pool.lastAccess));
+        }
+        stats.sort(Comparator.comparing(TenantPoolStats::tenant));
+        return stats;
+    }
+
+    /**
+     * Uso del pool administrativo y número de conexiones "any" pedidas por
+     * Hibernate desde el arranque.
+     */
+    public MetadataPoolStats getMetadataPoolStats() {
+        HikariPoolMXBean mx = metadataDataSource.getHikariPoolMXBean();
+        return new MetadataPoolStats(
+                anyConnectionRequests.sum(),
+                mx != null ? mx.getActiveConnections() : 0,
+                mx != null ? mx.getIdleConnections() : 0,
+                mx != null ? mx.getThreadsAwaitingConnection() : 0,
+                metadataPoolMaxSize);
+    }
+
+    /**
+     * Número máximo de pools de tenant que caben en el presupuesto global.
+     */
+    public int getPoolCapacity() {
+        return isSharedPool() ? Integer.MAX_VALUE : globalMaxConnections / Math.max(1, maxPoolSize);
+    }
+
+    /**
+     * Conexiones reservadas actualmente frente al presupuesto global.
+     */
+    public PoolBudget getPoolBudget() {
+        lock.lock();
+        try {
+            return new PoolBudget(dataSources.size(), reservedConnections, globalMaxConnections);
+        } finally {
+            lock.unlock();
+        }
+    }
+
     /**
      * Limpia el cache de DataSources (útil para testing)
      */
     public void clearCache() {
-        dataSources.clear();
+        List<TenantPool> retired;
+        lock.lock();
+        try {
+            retired = new ArrayList<>(dataSources.values());
+            dataSources.clear();
+            reservedConnections = 0;
+        } finally {
+            lock.unlock();
+        }
+        closePools(retired);
+    }
+
+    /**
+     * Pool de un tenant con la marca de último acceso usada para el desalojo.
+     * <p>
+     * {@code leases} cuenta los hilos que están obteniendo una conexión; el
+     * valor {@code -1} marca un pool retirado, que ya no admite arriendos.
+     */
+    static final class TenantPool {
+        private final String tenant;
+        private final HikariDataSource dataSource;
+        private final AtomicInteger leases = new AtomicInteger();
+        private volatile long lastAccess = System.currentTimeMillis();
+
+        TenantPool(String tenant, HikariDataSource dataSource) {
+            this.tenant = tenant;
+            this.dataSource = dataSource;
+        }
+
+        void touch() {
+            lastAccess = System.currentTimeMillis();
+        }
+
+        boolean tryAcquire() {
+            while (true) {
+                int current = leases.get();
+                if (current < 0) {
+                    return false;
+                }
+                if (leases.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        void release() {
+            leases.decrementAndGet();
+        }
+
+        /**
+         * Marca el pool como retirado si no está arrendado ni tiene conexiones
+         * activas. Las conexiones activas solo aumentan bajo arriendo, por lo
+         * que la comprobación posterior a la marca es definitiva.
+         */
+        boolean tryRetire() {
+            if (!leases.compareAndSet(0, -1)) {
+                return false;
+            }
+            if (activeConnections() > 0) {
+                leases.set(0);
+                return false;
+            }
+            return true;
+        }
+
+        int activeConnections() {
+            HikariPoolMXBean mx = dataSource.getHikariPoolMXBean();
+            return mx != null ? mx.getActiveConnections() : 0;
+        }
+    }
+
+    /**
+     * Métricas de un pool de tenant.
+     */
+    public record TenantPoolStats(String tenant, int active, int idle, int waiting, int total, int maxSize,
+            long lastAccess) {
+    }
+
+    /**
+     * Métricas del pool administrativo de metadatos.
+     */
+    public record MetadataPoolStats(long anyConnectionRequests, int active, int idle, int waiting, int maxSize) {
+    }
+
+    /**
+     * Uso del presupuesto global de conexiones.
+     */
+    public record PoolBudget(int pools, int reservedConnections, int globalMaxConnections) {
     }
 }
@@ -0,0 +1,20 @@
+package com.cna.facturita.multitenant.config;
+
+/**
+ * Estrategia de conexión por tenant ({@code facturita.multitenant.strategy}).
+ */
+public enum TenantStrategy {
+
+    /**
+     * Un pool de conexiones por esquema ({@code ?currentSchema=tenant}). Aísla el
+     * tráfico de cada tenant, pero el número de conexiones crece con los tenants.
+     */
+    SCHEMA,
+
+    /**
+     * Un único pool compartido; el esquema del tenant se fija con
+     * {@code SET search_path} al tomar la conexión y se restablece al liberarla.
+     * Permite alojar miles de esquemas con un número fijo de conexiones.
+     */
+    SHARED_POOL
+}
@@ -0,0 +1,183 @@
+package com.cna.facturita.multitenant.config;
+
+import com.cna.facturita.multitenant.registry.TenantRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Precalienta los pools de los tenants conocidos durante el arranque.
+ * <p>
+ * Descubre los tenants (los configurados en
+ * {@code facturita.multitenant.warmup.tenants}, los del {@link TenantRegistry}
+ * y los esquemas con tabla de usuarios), abre y valida una conexión por
+ * tenant en paralelo sobre un executor acotado y solo entonces deja que la
+ * aplicación pase a {@link ReadinessState#ACCEPTING_TRAFFIC}. Así la primera
+ * petición de cada tenant no paga la creación del pool ni la conexión física.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class TenantWarmupRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(TenantWarmupRunner.class);
+
+    // Los esquemas de tenant contienen t_usuarios; el esquema administrador, usuarios
+    private static final String DISCOVER_TENANTS_SQL = """
+            SELECT DISTINCT table_schema FROM information_schema.tables
+            WHERE table_name IN ('usuarios', 't_usuarios')
+              AND table_schema NOT IN ('pg_catalog', 'information_schema', 'public')
+            ORDER BY table_schema
+            """;
+
+    private final MultiTenantDataSourceProvider dataSourceProvider;
+    private final MultiTenantConnectionProviderImpl connectionProvider;
+    private final JdbcTemplate jdbcTemplate;
+    private final TenantRegistry registry;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${facturita.multitenant.warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${facturita.multitenant.warmup.tenants:}")
+    private List<String> configuredTenants;
+
+    @Value("${facturita.multitenant.warmup.parallelism:4}")
+    private int parallelism;
+
+    @Value("${facturita.multitenant.warmup.timeout:60s}")
+    private Duration timeout;
+
+    private volatile WarmupStatus status = new WarmupStatus(false, 0, 0, 0, 0L);
+
+    public TenantWarmupRunner(MultiTenantDataSourceProvider dataSourceProvider,
+            MultiTenantConnectionProviderImpl connectionProvider, JdbcTemplate jdbcTemplate,
+            TenantRegistry registry, ApplicationEventPublisher eventPublisher) {
+        this.dataSourceProvider = dataSourceProvider;
+        this.connectionProvider = connectionProvider;
+        this.jdbcTemplate = jdbcTemplate;
+        this.registry = registry;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            status = new WarmupStatus(true, 0, 0, 0, 0L);
+            return;
+        }
+        AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.REFUSING_TRAFFIC);
+        long start = System.currentTimeMillis();
+
+        List<String> tenants = discoverTenants();
+        int capacity = dataSourceProvider.getPoolCapacity();
+        if (tenants.size() > capacity) {
+            log.warn("[TenantWarmupRunner] {} tenants descubiertos, solo se precalientan {} por el presupuesto de conexiones",
+                    tenants.size(), capacity);
+            tenants = tenants.subList(0, capacity);
+        }
+        log.info("[TenantWarmupRunner] Precalentando {} tenants: {}", tenants.size(), tenants);
+
+        AtomicInteger ok = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, parallelism), r -> {
+            Thread t = new Thread(r, "tenant-warmup");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>(tenants.size());
+            for (String tenant : tenants) {
+                futures.add(executor.submit(() -> {
+                    if (warmUp(tenant)) {
+                        ok.incrementAndGet();
+                    } else {
+                        failed.incrementAndGet();
+                    }
+                }));
+            }
+            executor.shutdown();
+            if (!executor.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("[TenantWarmupRunner] Tiempo de precalentamiento agotado ({}), se continúa el arranque", timeout);
+                futures.forEach(f -> f.cancel(true));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long elapsed = System.currentTimeMillis() - start;
+        status = new WarmupStatus(true, tenants.size(), ok.get(), failed.get(), elapsed);
+        log.info("[TenantWarmupRunner] Precalentamiento completado en {} ms: {} ok, {} con error",
+                elapsed, ok.get(), failed.get());
+    }
+
+    /**
+     * Abre el pool del tenant y valida una conexión real.
+     */
+    private boolean warmUp(String tenant) {
+        Connection connection = null;
+        try {
+            connection = connectionProvider.getConnection(tenant);
+            boolean valid = connection.isValid(5);
+            if (!valid) {
+                log.warn("[TenantWarmupRunner] Conexión inválida para tenant: {}", tenant);
+            }
+            return valid;
+        } catch (Exception e) {
+            log.warn("[TenantWarmupRunner] Error precalentando tenant {}: {}", tenant, e.getMessage());
+            return false;
+        } finally {
+            if (connection != null) {
+                try {
+                    connectionProvider.releaseConnection(tenant, connection);
+                } catch (Exception e) {
+                    log.debug("[TenantWarmupRunner] Error liberando conexión de {}: {}", tenant, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private List<String> discoverTenants() {
+        Set<String> tenants = new LinkedHashSet<>();
+        configuredTenants.stream().map(String::trim).filter(t -> !t.isEmpty()).forEach(tenants::add);
+        tenants.addAll(registry.getTenants());
+        try {
+            tenants.addAll(jdbcTemplate.queryForList(DISCOVER_TENANTS_SQL, String.class));
+        } catch (Exception e) {
+            log.warn("[TenantWarmupRunner] No se pudieron listar los esquemas de tenant: {}", e.getMessage());
+        }
+        return new ArrayList<>(tenants);
+    }
+
+    /**
+     * Estado del último precalentamiento.
+     */
+    public WarmupStatus getStatus() {
+        return status;
+    }
+
+    public record WarmupStatus(boolean completed, int tenants, int ok, int failed, long elapsedMs) {
+    }
+}
@@ -1,27 +1,114 @@
 package com.cna.facturita.multitenant.context;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Callable;
+
 /**
- * Maneja el contexto del tenant actual usando ThreadLocal
+ * Maneja el contexto del tenant actual.
+ * <p>
+ * Además de {@link #setCurrentTenant}/{@link #clear} ofrece una API con ámbito
+ * ({@link #open}, {@link #runWithTenant}, {@link #callWithTenant}) que restaura
+ * el tenant anterior al salir, y {@link #wrap} para propagar el tenant a tareas
+ * que se ejecutan en otro hilo (executors, @Async, hilos virtuales).
+ * <p>
+ * La lectura ({@link #getCurrentTenant}) no registra logs ni reserva memoria:
+ * Hibernate la invoca varias veces por sesión.
  */
-public class TenantContext {
+public final class TenantContext {
+
+    private static final Logger log = LoggerFactory.getLogger(TenantContext.class);
+
     private static final ThreadLocal<String> CURRENT_TENANT = new ThreadLocal<>();
     public static final String DEFAULT_TENANT = "cna";
 
+    private TenantContext() {
+    }
+
     public static String getCurrentTenant() {
-    String tenant = CURRENT_TENANT.get();
-    org.slf4j.LoggerFactory.getLogger(TenantContext.class).debug("[TenantContext] getCurrentTenant tenant: {}", tenant);
-    String result = tenant != null ? tenant : DEFAULT_TENANT;
-    org.slf4j.LoggerFactory.getLogger(TenantContext.class).debug("[TenantContext] getCurrentTenant result: {}", result);
-    return result;
+        String tenant = CURRENT_TENANT.get();
+        return tenant != null ? tenant : DEFAULT_TENANT;
     }
 
     public static void setCurrentTenant(String tenant) {
         CURRENT_TENANT.set(tenant);
-        org.slf4j.LoggerFactory.getLogger(TenantContext.class).debug("[TenantContext] setCurrentTenant: {}", tenant);
+        log.debug("[TenantContext] setCurrentTenant: {}", tenant);
     }
 
     public static void clear() {
-        org.slf4j.LoggerFactory.getLogger(TenantContext.class).debug("[TenantContext] clear() llamado. Tenant anterior: {}", CURRENT_TENANT.get());
         CURRENT_TENANT.remove();
     }
-}
\ No newline at end of file
+
+    /**
+     * Establece el tenant hasta que se cierre el ámbito devuelto, que restaura
+     * el tenant anterior (o ninguno).
+     */
+    public static Scope open(String tenant) {
+        String previous = CURRENT_TENANT.get();
+        CURRENT_TENANT.set(tenant);
+        return new Scope(previous);
+    }
+
+    /**
+     * Ejecuta la tarea con el tenant indicado y restaura el anterior al terminar.
+     */
+    public static void runWithTenant(String tenant, Runnable task) {
+        try (Scope ignored = open(tenant)) {
+            task.run();
+        }
+    }
+
+    /**
+     * Ejecuta la tarea con el tenant indicado y restaura el anterior al terminar.
+     */
+    public static <T> T callWithTenant(String tenant, Callable<T> task) throws Exception {
+        try (Scope ignored = open(tenant)) {
+            return task.call();
+        }
+    }
+
+    /**
+     * Captura el tenant actual para ejecutar la tarea con él en otro hilo.
+     */
+    public static Runnable wrap(Runnable task) {
+        String tenant = CURRENT_TENANT.get();
+        if (tenant == null) {
+            return task;
+        }
+        return () -> runWithTenant(tenant, task);
+    }
+
+    /**
+     * Captura el tenant actual para ejecutar la tarea con él en otro hilo.
+     */
+    public static <T> Callable<T> wrap(Callable<T> task) {
+        String tenant = CURRENT_TENANT.get();
+        if (tenant == null) {
+            return task;
+        }
+        return () -> callWithTenant(tenant, task);
+    }
+
+    /**
+     * Ámbito de tenant abierto con {@link #open}; al cerrarlo restaura el
+     * tenant que había antes.
+     */
+    public static final class Scope implements AutoCloseable {
+
+        private final String previous;
+
+        private Scope(String previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous != null) {
+                CURRENT_TENANT.set(previous);
+            } else {
+                CURRENT_TENANT.remove();
+            }
+        }
+    }
+}
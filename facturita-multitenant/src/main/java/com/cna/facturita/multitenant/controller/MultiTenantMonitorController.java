@@ -0,0 +1,66 @@
+package com.cna.facturita.multitenant.controller;
+
+import com.cna.facturita.multitenant.config.MultiTenantDataSourceProvider;
+import com.cna.facturita.multitenant.config.MultiTenantDataSourceProvider.MetadataPoolStats;
+import com.cna.facturita.multitenant.config.MultiTenantDataSourceProvider.PoolBudget;
+import com.cna.facturita.multitenant.config.MultiTenantDataSourceProvider.TenantPoolStats;
+import com.cna.facturita.multitenant.config.TenantWarmupRunner;
+import com.cna.facturita.multitenant.config.TenantWarmupRunner.WarmupStatus;
+import com.cna.facturita.multitenant.resolver.SubdomainTenantResolver;
+import com.cna.facturita.multitenant.resolver.SubdomainTenantResolver.ResolverStats;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Endpoints de monitoreo de la capa multitenant (pools de conexiones por tenant).
+ * Exponen datos de todos los tenants: {@code SecurityConfig} los restringe al
+ * rol ADMIN del tenant administrador.
+ */
+@RestController
+@RequestMapping("/api/multitenant")
+public class MultiTenantMonitorController {
+
+    private final MultiTenantDataSourceProvider dataSourceProvider;
+    private final TenantWarmupRunner warmupRunner;
+    private final SubdomainTenantResolver tenantResolver;
+
+    public MultiTenantMonitorController(MultiTenantDataSourceProvider dataSourceProvider,
+            TenantWarmupRunner warmupRunner, SubdomainTenantResolver tenantResolver) {
+        this.dataSourceProvider = dataSourceProvider;
+        this.warmupRunner = warmupRunner;
+        this.tenantResolver = tenantResolver;
+    }
+
+    /**
+     * Devuelve las conexiones activas/ociosas/en espera de cada pool de tenant y
+     * el uso del presupuesto global y del pool administrativo de metadatos.
+     */
+    @GetMapping("/pools")
+    public ResponseEntity<PoolsResponse> getPools() {
+        return ResponseEntity.ok(new PoolsResponse(dataSourceProvider.getPoolBudget(),
+                dataSourceProvider.getMetadataPoolStats(), dataSourceProvider.getPoolStats()));
+    }
+
+    /**
+     * Estado del precalentamiento de tenants realizado en el arranque.
+     */
+    @GetMapping("/warmup")
+    public ResponseEntity<WarmupStatus> getWarmup() {
+        return ResponseEntity.ok(warmupRunner.getStatus());
+    }
+
+    /**
+     * Aciertos/fallos del cache de resolución de tenants.
+     */
+    @GetMapping("/resolver")
+    public ResponseEntity<ResolverStats> getResolver() {
+        return ResponseEntity.ok(tenantResolver.getStats());
+    }
+
+    public record PoolsResponse(PoolBudget presupuesto, MetadataPoolStats metadatos, List<TenantPoolStats> pools) {
+    }
+}
@@ -1,10 +1,15 @@
 package com.cna.facturita.multitenant.filter;
 
 import com.cna.facturita.multitenant.context.TenantContext;
+import com.cna.facturita.multitenant.registry.TenantHost;
 import com.cna.facturita.multitenant.resolver.SubdomainTenantResolver;
+import com.cna.facturita.multitenant.resolver.TenantResolution;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.lang.NonNull;
 import org.springframework.web.filter.OncePerRequestFilter;
 import org.springframework.core.Ordered;
@@ -13,13 +18,27 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import java.io.IOException;
+import java.time.LocalDateTime;
 
 /**
- * Filtro para establecer el tenant en el contexto por request
+ * Filtro para establecer el tenant en el contexto por request.
+ * <p>
+ * Es la única etapa que resuelve el tenant: el resultado queda en el atributo
+ * {@link #TENANT_ATTRIBUTE} del request para que el resto de la cadena
+ * (por ejemplo {@code TenantInterceptor}) no lo vuelva a calcular.
+ * <p>
+ * Antes de tocar cualquier conexión corta el request si el registro de
+ * tenants aún no está disponible (503), si el tenant no está registrado o su
+ * nombre no es válido (404), si el hostname está en mantenimiento (503) o si
+ * debe redirigirse a otro dominio (301).
  */
 @Slf4j
 @Component
 public class TenantFilter extends OncePerRequestFilter implements Ordered {
+
+    /** Atributo del request con el tenant resuelto. */
+    public static final String TENANT_ATTRIBUTE = TenantFilter.class.getName() + ".TENANT";
+
     @Override
     public int getOrder() {
         return Ordered.LOWEST_PRECEDENCE;
@@ -28,22 +47,53 @@ public class TenantFilter extends OncePerRequestFilter implements Ordered {
     private SubdomainTenantResolver tenantResolver;
 
     @Override
-    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull jakarta.servlet.http.HttpServletResponse response, @NonNull FilterChain filterChain)
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain)
             throws ServletException, IOException {
-        String tenant = request.getHeader("x-tenant");
-        if (tenant == null || tenant.isEmpty()) {
-            tenant = tenantResolver.resolveTenant(request);
+        TenantResolution resolution = tenantResolver.resolve(request);
+        String tenant = resolution.tenant();
+        if (resolution.status() == TenantResolution.Status.UNAVAILABLE) {
+            log.warn("[TenantFilter] Registro de tenants no disponible, request rechazado (host: {})", request.getServerName());
+            writeError(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Servicio no disponible");
+            return;
+        }
+        if (!resolution.known()) {
+            log.warn("[TenantFilter] Tenant no registrado: {} (host: {})", tenant, request.getServerName());
+            writeError(response, HttpServletResponse.SC_NOT_FOUND, "Tenant no encontrado");
+            return;
+        }
+        TenantHost host = resolution.host();
+        if (host != null && host.isRedirect()) {
+            log.debug("[TenantFilter] Redirigiendo {} a {}", host.fqdn(), host.redirigirA());
+            response.setStatus(HttpServletResponse.SC_MOVED_PERMANENTLY);
+            response.setHeader(HttpHeaders.LOCATION, redirectLocation(host.redirigirA(), request));
+            return;
+        }
+        if (host != null && host.isEnMantenimiento(LocalDateTime.now())) {
+            log.debug("[TenantFilter] Host en mantenimiento: {}", host.fqdn());
+            writeError(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Sitio en mantenimiento");
+            return;
         }
+        request.setAttribute(TENANT_ATTRIBUTE, tenant);
 
         log.debug("[TenantFilter] Host: {}, Tenant resuelto: {}", request.getServerName(), tenant);
-        log.debug("[TenantFilter] Asignando tenant al contexto: {}", tenant);
-        TenantContext.setCurrentTenant(tenant);
-        try {
+        try (TenantContext.Scope ignored = TenantContext.open(tenant)) {
             filterChain.doFilter(request, response);
-        } finally {
-            log.debug("[TenantFilter] Limpiando contexto de tenant. Valor actual: {}", TenantContext.getCurrentTenant());
-            TenantContext.clear();
-            log.debug("[TenantFilter] Contexto de tenant limpiado.");
         }
     }
+
+    private static String redirectLocation(String destino, HttpServletRequest request) {
+        String base = destino.contains("://") ? destino : request.getScheme() + "://" + destino;
+        if (base.endsWith("/")) {
+            base = base.substring(0, base.length() - 1);
+        }
+        String query = request.getQueryString();
+        return base + request.getRequestURI() + (query != null ? "?" + query : "");
+    }
+
+    private static void writeError(HttpServletResponse response, int status, String mensaje) throws IOException {
+        response.setStatus(status);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write("{\"error\":\"" + mensaje + "\"}");
+    }
 }
@@ -1,6 +1,7 @@
 package com.cna.facturita.multitenant.interceptor;
 
 import com.cna.facturita.multitenant.context.TenantContext;
+import com.cna.facturita.multitenant.filter.TenantFilter;
 import com.cna.facturita.multitenant.resolver.SubdomainTenantResolver;
 
 import org.slf4j.Logger;
@@ -18,8 +19,8 @@ import jakarta.servlet.http.HttpServletResponse;
  * <p>
  * Este interceptor se encarga de:
  * <ul>
- * <li>Resolver el tenant actual en cada request HTTP, usando subdominio, header
- * o configuración.</li>
+ * <li>Tomar el tenant ya resuelto por {@link TenantFilter} (atributo del
+ * request) o resolverlo si el filtro no se aplicó.</li>
  * <li>Establecer el contexto de tenant global para el ciclo de vida de la
  * petición.</li>
  * <li>Limpiar el contexto al finalizar la petición para evitar fugas entre
@@ -50,6 +51,8 @@ public class TenantInterceptor implements HandlerInterceptor {
 
     private static final Logger log = LoggerFactory.getLogger(TenantInterceptor.class);
 
+    private static final String OWNS_CONTEXT_ATTRIBUTE = TenantInterceptor.class.getName() + ".OWNS_CONTEXT";
+
     private final SubdomainTenantResolver tenantResolver;
 
     public TenantInterceptor(SubdomainTenantResolver tenantResolver) {
@@ -57,12 +60,11 @@ public class TenantInterceptor implements HandlerInterceptor {
     }
 
     /**
-     * Pre-procesa cada request para resolver y establecer el tenant actual.
+     * Pre-procesa cada request para establecer el tenant actual.
      * <p>
-     * - Si el host es localhost, intenta extraer el subdominio del header Origin
-     * (útil en desarrollo con frontend separado).
-     * - Si el host es un subdominio válido, lo usa como identificador de tenant.
-     * - Si no se puede resolver, usa el tenant por defecto.
+     * Normalmente el tenant ya fue resuelto por {@link TenantFilter}; solo si
+     * falta el atributo se delega en {@link SubdomainTenantResolver} (que también
+     * considera el header Origin en desarrollo).
      * <p>
      * El tenant se establece en el contexto global y se agrega un header de
      * respuesta para debugging.
@@ -77,30 +79,19 @@ public class TenantInterceptor implements HandlerInterceptor {
             @NonNull HttpServletRequest request,
             @NonNull HttpServletResponse response,
             @NonNull Object handler) {
-        String tenant = tenantResolver.resolveTenant(request);
-
-        // Si el serverName es localhost, intentar extraer el subdominio del header
-        // Origin
-        if ("localhost".equalsIgnoreCase(request.getServerName()) || "127.0.0.1".equals(request.getServerName())) {
-            String origin = request.getHeader("Origin");
-            if (origin != null) {
-                try {
-                    java.net.URI uri = new java.net.URI(origin);
-                    String host = uri.getHost(); // demo.localhost
-                    if (host != null && host.contains(".")) {
-                        String subdomain = host.substring(0, host.indexOf("."));
-                        if (subdomain.length() > 1) {
-                            tenant = subdomain;
-                            log.debug("[TenantInterceptor] Subdominio extraído de Origin: {}", subdomain);
-                        }
-                    }
-                } catch (Exception e) {
-                    log.debug("[TenantInterceptor] Error extrayendo subdominio de Origin: {}", origin);
-                }
+        String tenant = (String) request.getAttribute(TenantFilter.TENANT_ATTRIBUTE);
+        if (tenant == null) {
+            // Sin TenantFilter en la cadena: este interceptor es dueño del contexto
+            tenant = tenantResolver.resolveTenant(request);
+            if (tenant == null) {
+                log.warn("[TenantInterceptor] Tenant no resuelto para host: {}", request.getServerName());
+                response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+                return false;
             }
+            TenantContext.setCurrentTenant(tenant);
+            request.setAttribute(OWNS_CONTEXT_ATTRIBUTE, Boolean.TRUE);
         }
 
-        TenantContext.setCurrentTenant(tenant);
         log.debug("[TenantInterceptor] Request from {} -> Tenant: {}", request.getServerName(), tenant);
         response.setHeader("X-Tenant", tenant);
         return true;
@@ -123,10 +114,10 @@ public class TenantInterceptor implements HandlerInterceptor {
             @NonNull HttpServletResponse response,
             @NonNull Object handler,
             @Nullable Exception ex) {
-        // Limpiar el contexto después del request
-        log.debug("[TenantInterceptor] Limpiando contexto de tenant al finalizar la petición. Valor actual: {}",
-                TenantContext.getCurrentTenant());
-        TenantContext.clear();
-        log.debug("[TenantInterceptor] Contexto de tenant limpiado.");
+        // Limpiar el contexto después del request; si lo estableció TenantFilter,
+        // el filtro restaura el tenant anterior al cerrar su ámbito
+        if (request.getAttribute(OWNS_CONTEXT_ATTRIBUTE) != null) {
+            TenantContext.clear();
+        }
     }
 }
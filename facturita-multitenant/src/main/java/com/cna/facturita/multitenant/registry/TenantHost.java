@@ -0,0 +1,22 @@
+package com.cna.facturita.multitenant.registry;
+
+import java.time.LocalDateTime;
+
+/**
+ * Hostname registrado (tabla {@code hostnames}) y el tenant al que pertenece.
+ *
+ * @param fqdn                 Nombre de dominio completo, en minúsculas
+ * @param tenant               Esquema del tenant
+ * @param redirigirA           Destino de redirección, si aplica
+ * @param enMantenimientoDesde Fecha desde la que el host está en mantenimiento
+ */
+public record TenantHost(String fqdn, String tenant, String redirigirA, LocalDateTime enMantenimientoDesde) {
+
+    public boolean isRedirect() {
+        return redirigirA != null && !redirigirA.isBlank();
+    }
+
+    public boolean isEnMantenimiento(LocalDateTime ahora) {
+        return enMantenimientoDesde != null && !enMantenimientoDesde.isAfter(ahora);
+    }
+}
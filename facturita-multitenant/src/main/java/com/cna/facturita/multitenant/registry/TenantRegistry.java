@@ -0,0 +1,220 @@
+package com.cna.facturita.multitenant.registry;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registro en memoria de los tenants conocidos, construido a partir de las
+ * tablas {@code hostnames} y {@code sitiosweb}.
+ * <p>
+ * Mantiene un mapa inmutable fqdn -&gt; {@link TenantHost} que se reemplaza
+ * atómicamente en cada refresco. El refresco es incremental: primero compara
+ * una huella barata (número de filas y última fecha de modificación) y, si
+ * cambió, solo lee las filas modificadas desde el último refresco. Si el
+ * número de filas disminuye (borrado físico) se recarga todo.
+ * <p>
+ * El tenant de un hostname es {@code sitiosweb.conexion_de_base_de_datos} o,
+ * si está vacío, el primer segmento del fqdn.
+ */
+@Component
+public class TenantRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(TenantRegistry.class);
+
+    private static final String MODIFICADO = """
+            GREATEST(h.fecha_de_creacion, h.fecha_de_actualizacion, h.fecha_de_eliminacion,
+                     s.fecha_de_creacion, s.fecha_de_actualizacion, s.fecha_de_eliminacion)""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${facturita.multitenant.registry.enabled:true}")
+    private boolean enabled;
+
+    @Value("${facturita.multitenant.registry.schema:}")
+    private String schema;
+
+    @Value("${facturita.multitenant.registry.refresh-interval:30s}")
+    private Duration refreshInterval;
+
+    @Value("${facturita.multitenant.default-tenant:cna}")
+    private String defaultTenant;
+
+    private volatile Snapshot snapshot;
+
+    private ScheduledExecutorService refresher;
+
+    public TenantRegistry(JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostConstruct
+    void init() {
+        if (!enabled) {
+            log.info("[TenantRegistry] Registro de tenants deshabilitado");
+            return;
+        }
+        refresh();
+        refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "tenant-registry-refresh");
+            t.setDaemon(true);
+            return t;
+        });
+        long interval = refreshInterval.toMillis();
+        refresher.scheduleWithFixedDelay(this::refresh, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
+    }
+
+    /**
+     * Indica si el registro está habilitado. Deshabilitado, la resolución de
+     * tenants solo valida el nombre.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Indica si el registro está cargado. Habilitado pero sin cargar, solo el
+     * tenant por defecto se considera conocido.
+     */
+    public boolean isLoaded() {
+        return snapshot != null;
+    }
+
+    /**
+     * Busca un hostname registrado (fqdn en minúsculas).
+     */
+    public TenantHost findByHost(String fqdn) {
+        Snapshot current = snapshot;
+        return current != null ? current.byHost().get(fqdn) : null;
+    }
+
+    /**
+     * Indica si el tenant está registrado. El tenant por defecto siempre lo está.
+     */
+    public boolean isKnownTenant(String tenant) {
+        if (defaultTenant.equals(tenant)) {
+            return true;
+        }
+        Snapshot current = snapshot;
+        return current != null && current.tenants().contains(tenant);
+    }
+
+    /**
+     * Tenants registrados actualmente.
+     */
+    public Set<String> getTenants() {
+        Snapshot current = snapshot;
+        return current != null ? current.tenants() : Set.of(defaultTenant);
+    }
+
+    /**
+     * Refresca el registro: incremental si es posible, completo si no.
+     */
+    public synchronized void refresh() {
+        try {
+            Snapshot current = snapshot;
+            Fingerprint fingerprint = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*), MAX(" + MODIFICADO + ") FROM " + from(),
+                    (rs, i) -> new Fingerprint(rs.getLong(1), toLocalDateTime(rs.getTimestamp(2))));
+            if (current != null && current.fingerprint().equals(fingerprint)) {
+                return;
+            }
+
+            Map<String, TenantHost> byHost;
+            if (current == null || current.fingerprint().modificado() == null
+                    || fingerprint.filas() < current.fingerprint().filas()) {
+                byHost = new HashMap<>();
+                jdbcTemplate.query(select(), rs -> {
+                    apply(byHost, rs);
+                });
+                log.info("[TenantRegistry] Registro cargado: {} hostnames", byHost.size());
+            } else {
+                byHost = new HashMap<>(current.byHost());
+                int[] cambios = { 0 };
+                jdbcTemplate.query(select() + " WHERE " + MODIFICADO + " > ?", rs -> {
+                    apply(byHost, rs);
+                    cambios[0]++;
+                }, Timestamp.valueOf(current.fingerprint().modificado()));
+                log.info("[TenantRegistry] Registro actualizado: {} hostnames modificados", cambios[0]);
+            }
+
+            Set<String> tenants = new HashSet<>();
+            tenants.add(defaultTenant);
+            byHost.values().forEach(h -> tenants.add(h.tenant()));
+            snapshot = new Snapshot(Map.copyOf(byHost), Set.copyOf(tenants), fingerprint);
+            eventPublisher.publishEvent(new TenantRegistryRefreshedEvent(byHost.size()));
+        } catch (Exception e) {
+            log.warn("[TenantRegistry] No se pudo refrescar el registro de tenants: {}", e.getMessage());
+        }
+    }
+
+    private void apply(Map<String, TenantHost> byHost, ResultSet rs) throws SQLException {
+        String fqdn = rs.getString("fqdn").trim().toLowerCase();
+        if (rs.getTimestamp("host_eliminado") != null || rs.getTimestamp("sitio_eliminado") != null) {
+            byHost.remove(fqdn);
+            return;
+        }
+        String tenant = rs.getString("conexion_de_base_de_datos");
+        if (tenant == null || tenant.isBlank()) {
+            int dot = fqdn.indexOf('.');
+            tenant = dot > 0 ? fqdn.substring(0, dot) : fqdn;
+        }
+        byHost.put(fqdn, new TenantHost(fqdn, tenant.trim().toLowerCase(), rs.getString("redirigir_a"),
+                toLocalDateTime(rs.getTimestamp("en_mantenimiento_desde"))));
+    }
+
+    private String select() {
+        return """
+                SELECT h.fqdn, h.redirigir_a, h.en_mantenimiento_desde, s.conexion_de_base_de_datos,
+                       h.fecha_de_eliminacion AS host_eliminado, s.fecha_de_eliminacion AS sitio_eliminado
+                FROM\s""" + from();
+    }
+
+    private String from() {
+        String prefix = schema == null || schema.isBlank() ? "" : schema + ".";
+        return prefix + "hostnames h LEFT JOIN " + prefix + "sitiosweb s ON s.id = h.sitioweb_id";
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
+    private record Fingerprint(long filas, LocalDateTime modificado) {
+    }
+
+    private record Snapshot(Map<String, TenantHost> byHost, Set<String> tenants, Fingerprint fingerprint) {
+    }
+
+    /**
+     * Evento publicado cada vez que cambia el contenido del registro.
+     */
+    public record TenantRegistryRefreshedEvent(int hostnames) {
+    }
+}
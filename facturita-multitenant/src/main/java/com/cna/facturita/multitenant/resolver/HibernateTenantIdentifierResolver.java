@@ -11,9 +11,7 @@ import org.springframework.stereotype.Component;
 public class HibernateTenantIdentifierResolver implements CurrentTenantIdentifierResolver<String> {
     @Override
     public String resolveCurrentTenantIdentifier() {
-    String tenant = TenantContext.getCurrentTenant();
-    org.slf4j.LoggerFactory.getLogger(HibernateTenantIdentifierResolver.class).debug("[HibernateTenantIdentifierResolver] resolveCurrentTenantIdentifier: {}", tenant);
-    return tenant;
+        return TenantContext.getCurrentTenant();
     }
 
     @Override
@@ -1,61 +1,202 @@
 package com.cna.facturita.multitenant.resolver;
 
+import com.cna.facturita.multitenant.config.MultiTenantDataSourceProvider;
+import com.cna.facturita.multitenant.registry.TenantHost;
+import com.cna.facturita.multitenant.registry.TenantRegistry;
+import com.cna.facturita.multitenant.registry.TenantRegistry.TenantRegistryRefreshedEvent;
+import com.cna.facturita.multitenant.resolver.TenantResolution.Status;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
 import jakarta.servlet.http.HttpServletRequest;
+import java.net.URI;
+import java.util.List;
 import java.util.regex.Pattern;
 
 /**
  * Resuelve el tenant basado en el subdominio de la URL
+ * <p>
+ * El resultado se guarda en un cache acotado cuya clave es solo el
+ * serverName (en minúsculas): los hosts repetidos se resuelven con una
+ * búsqueda en el cache, sin expresiones regulares. Solo se cachean hosts que
+ * resuelven a un tenant conocido por sí mismos (hostname registrado, dominio
+ * base o subdominio registrado); las resoluciones por header x-tenant u
+ * Origin y los hosts desconocidos se calculan en cada request, de modo que
+ * valores arbitrarios enviados por el cliente no pueden desalojar los hosts
+ * legítimos del cache.
+ * <p>
+ * Los dominios base se configuran en {@code facturita.multitenant.domains} y
+ * los tenants válidos los decide {@link TenantRegistry}: un subdominio que no
+ * figura en el registro se marca como desconocido en lugar de convertirse en
+ * un esquema. Mientras el registro habilitado no se haya cargado, todo tenant
+ * distinto del por defecto queda como no disponible (el filtro responde 503).
+ * Sea cual sea su origen (host, x-tenant u Origin), el nombre resuelto debe ser
+ * un identificador de esquema válido
+ * ({@link MultiTenantDataSourceProvider#isValidSchema}) antes de llegar a un
+ * pool o a un {@code search_path}. El cache se vacía cada vez que el registro
+ * cambia.
  */
 @Component
 public class SubdomainTenantResolver {
     private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(SubdomainTenantResolver.class);
-    
-    private static final String DEFAULT_TENANT = "cna";
-    private static final String PRODUCTION_DOMAIN = "facturitapro.com";
+
     private static final String DEV_DOMAIN = "localhost";
-    
+
     // Patrón para validar nombres de tenant (solo letras, números y guiones)
     private static final Pattern TENANT_PATTERN = Pattern.compile("^[a-zA-Z0-9-]+$");
-    
+
+    private final Cache<String, TenantResolution> cache;
+    private final TenantRegistry registry;
+    private final String defaultTenant;
+    private final List<String> domains;
+    private final List<String> suffixes;
+
+    public SubdomainTenantResolver(TenantRegistry registry,
+            @Value("${facturita.multitenant.resolver.cache-size:1024}") long cacheSize,
+            @Value("${facturita.multitenant.default-tenant:cna}") String defaultTenant,
+            @Value("${facturita.multitenant.domains:facturitapro.com,localhost}") List<String> domains) {
+        this.registry = registry;
+        this.defaultTenant = defaultTenant;
+        this.domains = domains.stream().map(d -> d.trim().toLowerCase()).filter(d -> !d.isEmpty()).toList();
+        this.suffixes = this.domains.stream().map(d -> "." + d).toList();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .recordStats()
+                .build();
+    }
+
     /**
-     * Resuelve el tenant desde la URL del request
-     * 
+     * Resuelve el tenant desde la URL del request; {@code null} si el tenant
+     * no es conocido (ver {@link #resolve(HttpServletRequest)}).
+     *
      * Ejemplos:
      * - localhost:8080 -> cna (desarrollo)
      * - facturita.com -> cna (producción)
      * - cna.facturita.com -> cna
      * - empresa1.facturita.com -> empresa1
      * - localhost -> cna (desarrollo sin puerto)
+     * - localhost con Origin http://demo.localhost:4200 -> demo (frontend separado)
      */
     public String resolveTenant(HttpServletRequest request) {
-        String serverName = request.getServerName();
+        TenantResolution resolution = resolve(request);
+        return resolution.known() ? resolution.tenant() : null;
+    }
+
+    /**
+     * Resuelve el tenant y el hostname registrado del request, indicando si el
+     * tenant es conocido por el registro.
+     */
+    public TenantResolution resolve(HttpServletRequest request) {
         String headerxTenant = request.getHeader("x-tenant");
-        log.debug("[SubdomainTenantResolver] serverName: {}", serverName);
-        log.debug("[SubdomainTenantResolver] x-tenant header: {}", headerxTenant);
+        String serverName = request.getServerName();
+        if (StringUtils.hasText(headerxTenant) || serverName == null) {
+            return resolve(serverName, headerxTenant, null);
+        }
+        if (isDevHost(serverName)) {
+            // El tenant depende del header Origin: no se cachea
+            return resolve(serverName, null, request.getHeader("Origin"));
+        }
 
-        if (headerxTenant != null){
-            log.debug("[SubdomainTenantResolver] Usando x-tenant header: {}", headerxTenant);
-            return headerxTenant;
+        // toLowerCase devuelve la misma instancia si el host ya está en minúsculas
+        String host = serverName.toLowerCase();
+        TenantResolution resolution = cache.getIfPresent(host);
+        if (resolution == null) {
+            resolution = resolve(host, null, null);
+            if (isCacheable(host, resolution)) {
+                cache.put(host, resolution);
+            }
+        }
+        return resolution;
+    }
+
+    /**
+     * Un host se cachea solo si por sí mismo identifica un tenant conocido; los
+     * hosts que caen en el tenant por defecto sin estar registrados no.
+     */
+    private boolean isCacheable(String host, TenantResolution resolution) {
+        if (!resolution.known()) {
+            return false;
+        }
+        return resolution.host() != null
+                || domains.contains(host)
+                || resolution.tenant().equals(extractSubdomain(host));
+    }
+
+    private static boolean isDevHost(String serverName) {
+        return serverName.equalsIgnoreCase(DEV_DOMAIN) || serverName.equals("127.0.0.1");
+    }
+
+    @EventListener
+    public void onRegistryRefreshed(TenantRegistryRefreshedEvent event) {
+        cache.invalidateAll();
+        log.debug("[SubdomainTenantResolver] Cache invalidado tras refresco del registro ({} hostnames)", event.hostnames());
+    }
+
+    private TenantResolution resolve(String serverName, String headerxTenant, String origin) {
+        // Hostname registrado explícitamente (incluye dominios propios de clientes)
+        if (serverName != null && !StringUtils.hasText(headerxTenant)) {
+            TenantHost host = registry.findByHost(serverName.toLowerCase());
+            if (host != null) {
+                return check(host.tenant(), host);
+            }
+        }
+        return check(resolveName(serverName, headerxTenant, origin), null);
+    }
+
+    /**
+     * Valida el nombre contra el patrón de esquemas y lo contrasta con el
+     * registro. Sin registro cargado solo pasa el tenant por defecto.
+     */
+    private TenantResolution check(String tenant, TenantHost host) {
+        if (!MultiTenantDataSourceProvider.isValidSchema(tenant)) {
+            log.debug("[SubdomainTenantResolver] Nombre de tenant inválido");
+            return new TenantResolution(null, host, Status.UNKNOWN);
+        }
+        if (!registry.isEnabled() || registry.isKnownTenant(tenant)) {
+            return new TenantResolution(tenant, host, Status.KNOWN);
+        }
+        if (!registry.isLoaded()) {
+            log.debug("[SubdomainTenantResolver] Registro no disponible, tenant rechazado: {}", tenant);
+            return new TenantResolution(tenant, host, Status.UNAVAILABLE);
+        }
+        log.debug("[SubdomainTenantResolver] Tenant no registrado: {}", tenant);
+        return new TenantResolution(tenant, host, Status.UNKNOWN);
+    }
+
+    private String resolveName(String serverName, String headerxTenant, String origin) {
+        log.debug("[SubdomainTenantResolver] serverName: {}, x-tenant: {}, Origin: {}", serverName, headerxTenant, origin);
+
+        if (StringUtils.hasText(headerxTenant)) {
+            log.debug("[SubdomainTenantResolver] Usando x-tenant header");
+            return headerxTenant.trim().toLowerCase();
         }
 
         if (serverName == null) {
-            log.debug("[SubdomainTenantResolver] serverName es null, usando DEFAULT_TENANT: {}", DEFAULT_TENANT);
-            return DEFAULT_TENANT;
+            log.debug("[SubdomainTenantResolver] serverName es null, usando DEFAULT_TENANT: {}", defaultTenant);
+            return defaultTenant;
         }
 
-        // Desarrollo: localhost o localhost:puerto
-        if (serverName.equals(DEV_DOMAIN) || serverName.equals("127.0.0.1")) {
-            log.debug("[SubdomainTenantResolver] serverName es localhost o 127.0.0.1, usando DEFAULT_TENANT: {}", DEFAULT_TENANT);
-            return DEFAULT_TENANT;
+        // Desarrollo: localhost o localhost:puerto. Con frontend separado el
+        // subdominio llega en el header Origin (ej: http://demo.localhost:4200)
+        if (isDevHost(serverName)) {
+            String fromOrigin = extractSubdomainFromOrigin(origin);
+            if (fromOrigin != null) {
+                log.debug("[SubdomainTenantResolver] Subdominio extraído de Origin: {}", fromOrigin);
+                return fromOrigin;
+            }
+            log.debug("[SubdomainTenantResolver] serverName es localhost o 127.0.0.1, usando DEFAULT_TENANT: {}", defaultTenant);
+            return defaultTenant;
         }
 
         // Producción: dominio principal
-        if (serverName.equals(PRODUCTION_DOMAIN)) {
-            log.debug("[SubdomainTenantResolver] serverName es dominio producción, usando DEFAULT_TENANT: {}", DEFAULT_TENANT);
-            return DEFAULT_TENANT;
+        if (domains.contains(serverName.toLowerCase())) {
+            log.debug("[SubdomainTenantResolver] serverName es dominio producción, usando DEFAULT_TENANT: {}", defaultTenant);
+            return defaultTenant;
         }
 
         // Subdominios
@@ -69,10 +210,31 @@ public class SubdomainTenantResolver {
         }
 
         // Si no es válido, usar default
-        log.debug("[SubdomainTenantResolver] tenant no válido, usando DEFAULT_TENANT: {}", DEFAULT_TENANT);
-        return DEFAULT_TENANT;
+        log.debug("[SubdomainTenantResolver] tenant no válido, usando DEFAULT_TENANT: {}", defaultTenant);
+        return defaultTenant;
+    }
+
+    /**
+     * Extrae el subdominio del host del header Origin (ej: demo.localhost -> demo)
+     */
+    private String extractSubdomainFromOrigin(String origin) {
+        if (origin == null) {
+            return null;
+        }
+        try {
+            String host = new URI(origin).getHost();
+            if (host != null && host.contains(".")) {
+                String subdomain = host.substring(0, host.indexOf('.'));
+                if (subdomain.length() > 1) {
+                    return subdomain.toLowerCase();
+                }
+            }
+        } catch (Exception e) {
+            log.debug("[SubdomainTenantResolver] Error extrayendo subdominio de Origin: {}", origin);
+        }
+        return null;
     }
-    
+
     /**
      * Extrae el subdominio de la URL
      */
@@ -82,24 +244,20 @@ public class SubdomainTenantResolver {
             return null;
         }
 
-        // Para facturita.com
-        if (serverName.endsWith("." + PRODUCTION_DOMAIN)) {
-            String subdomain = serverName.substring(0, serverName.indexOf("." + PRODUCTION_DOMAIN));
-            log.debug("[SubdomainTenantResolver] extractSubdomain: subdominio producción extraído: {}", subdomain);
-            return subdomain.toLowerCase();
-        }
-
-        // Para desarrollo con subdominios locales (ej: cna.localhost)
-        if (serverName.endsWith("." + DEV_DOMAIN)) {
-            String subdomain = serverName.substring(0, serverName.indexOf("." + DEV_DOMAIN));
-            log.debug("[SubdomainTenantResolver] extractSubdomain: subdominio desarrollo extraído: {}", subdomain);
-            return subdomain.toLowerCase();
+        // Dominios configurados (ej: empresa1.facturitapro.com, cna.localhost)
+        String host = serverName.toLowerCase();
+        for (String suffix : suffixes) {
+            if (host.endsWith(suffix)) {
+                String subdomain = host.substring(0, host.length() - suffix.length());
+                log.debug("[SubdomainTenantResolver] extractSubdomain: subdominio extraído: {}", subdomain);
+                return subdomain;
+            }
         }
 
         log.debug("[SubdomainTenantResolver] extractSubdomain: no se encontró subdominio");
         return null;
     }
-    
+
     /**
      * Valida que el nombre del tenant sea válido
      */
@@ -118,11 +276,22 @@ public class SubdomainTenantResolver {
         log.debug("[SubdomainTenantResolver] isValidTenant: patrón válido? {} para tenant: {}", matches, tenant);
         return matches;
     }
-    
+
     /**
      * Determina si una URL corresponde al tenant administrador
      */
     public boolean isAdminTenant(String tenant) {
-        return DEFAULT_TENANT.equals(tenant);
+        return defaultTenant.equals(tenant);
+    }
+
+    /**
+     * Aciertos/fallos del cache de resolución.
+     */
+    public ResolverStats getStats() {
+        CacheStats stats = cache.stats();
+        return new ResolverStats(stats.hitCount(), stats.missCount(), stats.hitRate(), cache.estimatedSize());
+    }
+
+    public record ResolverStats(long hits, long misses, double hitRate, long size) {
     }
 }
@@ -0,0 +1,23 @@
+package com.cna.facturita.multitenant.resolver;
+
+import com.cna.facturita.multitenant.registry.TenantHost;
+
+/**
+ * Resultado de resolver el tenant de un request.
+ *
+ * @param tenant Esquema del tenant resuelto; {@code null} si el nombre no es un
+ *               identificador de esquema válido
+ * @param host   Hostname registrado que originó la resolución, si existe
+ * @param status Si el tenant es conocido, desconocido (o inválido) o si no se
+ *               puede decidir porque el registro aún no está disponible
+ */
+public record TenantResolution(String tenant, TenantHost host, Status status) {
+
+    public enum Status {
+        KNOWN, UNKNOWN, UNAVAILABLE
+    }
+
+    public boolean known() {
+        return status == Status.KNOWN;
+    }
+}
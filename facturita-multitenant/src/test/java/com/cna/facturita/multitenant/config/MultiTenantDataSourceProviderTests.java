@@ -0,0 +1,98 @@
+package com.cna.facturita.multitenant.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MultiTenantDataSourceProviderTests {
+
+    private MultiTenantDataSourceProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        // Pools sin configurar: Hikari no abre conexiones hasta el primer getConnection
+        provider = new MultiTenantDataSourceProvider() {
+            @Override
+            HikariDataSource createDataSource(String tenant) {
+                return new HikariDataSource();
+            }
+        };
+        ReflectionTestUtils.setField(provider, "maxPoolSize", 5);
+        ReflectionTestUtils.setField(provider, "globalMaxConnections", 10);
+        ReflectionTestUtils.setField(provider, "idleTtl", Duration.ofMinutes(10));
+    }
+
+    @AfterEach
+    void tearDown() {
+        provider.clearCache();
+    }
+
+    @Test
+    void reservaPresupuestoPorPool() {
+        provider.getDataSource("a");
+        provider.getDataSource("b");
+
+        assertThat(provider.getPoolBudget())
+                .isEqualTo(new MultiTenantDataSourceProvider.PoolBudget(2, 10, 10));
+        assertThat(provider.getDataSource("a")).isSameAs(provider.getDataSource("a"));
+    }
+
+    @Test
+    void sinPresupuestoCierraElPoolMenosUsado() throws InterruptedException {
+        HikariDataSource a = (HikariDataSource) provider.getDataSource("a");
+        Thread.sleep(5);
+        HikariDataSource b = (HikariDataSource) provider.getDataSource("b");
+        Thread.sleep(5);
+
+        provider.getDataSource("c");
+
+        assertThat(a.isClosed()).isTrue();
+        assertThat(b.isClosed()).isFalse();
+        assertThat(provider.getConfiguredTenants()).containsExactlyInAnyOrder("b", "c");
+        assertThat(provider.getPoolBudget().reservedConnections()).isEqualTo(10);
+    }
+
+    @Test
+    void presupuestoInsuficienteRechazaElTenant() {
+        ReflectionTestUtils.setField(provider, "globalMaxConnections", 4);
+
+        assertThatThrownBy(() -> provider.getDataSource("a"))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(provider.getPoolBudget().reservedConnections()).isZero();
+    }
+
+    @Test
+    void desalojaPoolsInactivosYLosRecreaAlVolverAUsarlos() throws InterruptedException {
+        HikariDataSource a = (HikariDataSource) provider.getDataSource("a");
+        ReflectionTestUtils.setField(provider, "idleTtl", Duration.ZERO);
+        Thread.sleep(5);
+
+        provider.evictIdlePools();
+
+        assertThat(a.isClosed()).isTrue();
+        assertThat(provider.getPoolBudget().pools()).isZero();
+        HikariDataSource nuevo = (HikariDataSource) provider.getDataSource("a");
+        assertThat(nuevo).isNotSameAs(a);
+        assertThat(nuevo.isClosed()).isFalse();
+    }
+
+    @Test
+    void unPoolArrendadoNoSeRetira() {
+        MultiTenantDataSourceProvider.TenantPool pool =
+                new MultiTenantDataSourceProvider.TenantPool("a", new HikariDataSource());
+
+        assertThat(pool.tryAcquire()).isTrue();
+        assertThat(pool.tryRetire()).isFalse();
+
+        pool.release();
+        assertThat(pool.tryRetire()).isTrue();
+        assertThat(pool.tryAcquire()).isFalse();
+    }
+}
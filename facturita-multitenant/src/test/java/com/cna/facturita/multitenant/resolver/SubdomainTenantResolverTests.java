@@ -0,0 +1,79 @@
+package com.cna.facturita.multitenant.resolver;
+
+import com.cna.facturita.multitenant.registry.TenantRegistry;
+import com.cna.facturita.multitenant.resolver.TenantResolution.Status;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SubdomainTenantResolverTests {
+
+    private TenantRegistry registry;
+    private SubdomainTenantResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        registry = mock(TenantRegistry.class);
+        when(registry.isEnabled()).thenReturn(true);
+        when(registry.isLoaded()).thenReturn(true);
+        when(registry.isKnownTenant("cna")).thenReturn(true);
+        when(registry.isKnownTenant("demo")).thenReturn(true);
+        resolver = new SubdomainTenantResolver(registry, 100, "cna", List.of("facturitapro.com", "localhost"));
+    }
+
+    @Test
+    void resuelveSubdominioRegistrado() {
+        TenantResolution resolution = resolver.resolve(request("demo.facturitapro.com", null));
+
+        assertThat(resolution.status()).isEqualTo(Status.KNOWN);
+        assertThat(resolution.tenant()).isEqualTo("demo");
+    }
+
+    @Test
+    void rechazaHeaderConCaracteresFueraDelPatronDeEsquema() {
+        TenantResolution resolution = resolver.resolve(request("localhost", "demo&socketFactory=x"));
+
+        assertThat(resolution.status()).isEqualTo(Status.UNKNOWN);
+        assertThat(resolution.tenant()).isNull();
+        assertThat(resolver.resolveTenant(request("localhost", "demo,public"))).isNull();
+    }
+
+    @Test
+    void tenantNoRegistradoEsDesconocido() {
+        TenantResolution resolution = resolver.resolve(request("otro.facturitapro.com", null));
+
+        assertThat(resolution.status()).isEqualTo(Status.UNKNOWN);
+    }
+
+    @Test
+    void sinRegistroCargadoSoloPasaElTenantPorDefecto() {
+        when(registry.isLoaded()).thenReturn(false);
+        when(registry.isKnownTenant("demo")).thenReturn(false);
+
+        assertThat(resolver.resolve(request("demo.facturitapro.com", null)).status()).isEqualTo(Status.UNAVAILABLE);
+        assertThat(resolver.resolve(request("facturitapro.com", null)).status()).isEqualTo(Status.KNOWN);
+    }
+
+    @Test
+    void noCacheaResolucionesPorHeader() {
+        resolver.resolve(request("localhost", "demo"));
+        resolver.resolve(request("localhost", "junk-1"));
+
+        assertThat(resolver.getStats().size()).isZero();
+    }
+
+    private static MockHttpServletRequest request(String serverName, String xTenant) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setServerName(serverName);
+        if (xTenant != null) {
+            request.addHeader("x-tenant", xTenant);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,53 @@
+package com.cna.facturita.security.adaptador;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Usuario autenticado reconstruido únicamente a partir de los claims de un
+ * JWT verificado (sin consulta a la base de datos).
+ */
+public class JwtUserDetails implements UserDetails {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Integer uid;
+    private final String username;
+    private final String tenant;
+    private final List<GrantedAuthority> authorities;
+
+    public JwtUserDetails(Integer uid, String username, String tenant, Collection<String> roles) {
+        this.uid = uid;
+        this.username = username;
+        this.tenant = tenant;
+        this.authorities = roles.stream().<GrantedAuthority>map(SimpleGrantedAuthority::new).toList();
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public String getPassword() {
+        // La contraseña nunca viaja en el token
+        return null;
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+    public Integer getUid() {
+        return uid;
+    }
+
+    public String getTenant() {
+        return tenant;
+    }
+}
@@ -0,0 +1,67 @@
+package com.cna.facturita.security.audit;
+
+import com.cna.facturita.security.jwt.TokenHash;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Auditoría muestreada de la autenticación de requests.
+ * <p>
+ * Escribe en el logger {@value #LOGGER_NAME}, que {@code logback-spring.xml}
+ * envía a un appender asíncrono. Los accesos exitosos se registran con
+ * probabilidad {@code facturita.security.audit.sample-rate}; los rechazos se
+ * registran siempre salvo que {@code log-failures} sea {@code false}. Nunca se
+ * escribe el token: solo una huella derivada de su SHA-256.
+ */
+@Component
+public class RequestAuditLogger {
+
+    public static final String LOGGER_NAME = "facturita.security.audit";
+
+    private static final Logger audit = LoggerFactory.getLogger(LOGGER_NAME);
+
+    private static final int FINGERPRINT_LENGTH = 12;
+
+    @Value("${facturita.security.audit.sample-rate:0.01}")
+    private double sampleRate;
+
+    @Value("${facturita.security.audit.log-failures:true}")
+    private boolean logFailures;
+
+    /**
+     * Request autenticado correctamente (muestreado).
+     */
+    public void success(HttpServletRequest request, String username, String token) {
+        if (sampleRate <= 0 || !audit.isInfoEnabled()
+                || (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+            return;
+        }
+        audit.info("evento=auth_ok metodo={} uri={} usuario={} token={} correlacion={}", request.getMethod(),
+                request.getRequestURI(), username, fingerprint(token), MDC.get(CorrelationIdFilter.MDC_KEY));
+    }
+
+    /**
+     * Request rechazado (token expirado, inválido, revocado o de otro tenant).
+     */
+    public void failure(HttpServletRequest request, String motivo, String token) {
+        if (!logFailures || !audit.isInfoEnabled()) {
+            return;
+        }
+        audit.info("evento=auth_rechazado motivo={} metodo={} uri={} token={} correlacion={}", motivo,
+                request.getMethod(), request.getRequestURI(), fingerprint(token),
+                MDC.get(CorrelationIdFilter.MDC_KEY));
+    }
+
+    /**
+     * Huella corta del token, suficiente para correlacionar sin exponerlo.
+     */
+    public static String fingerprint(String token) {
+        return token == null ? "-" : TokenHash.sha256(token).substring(0, FINGERPRINT_LENGTH);
+    }
+}
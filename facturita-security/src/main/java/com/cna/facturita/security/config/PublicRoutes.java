@@ -0,0 +1,107 @@
+package com.cna.facturita.security.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tabla única de rutas públicas (sin JWT).
+ * <p>
+ * La usan {@link SecurityConfig} para el {@code permitAll} y
+ * {@code JwtAuthenticationFilter} para no parsear tokens en esas rutas, de
+ * modo que ambas listas no pueden divergir. Las rutas se compilan una vez en
+ * un trie por segmentos: {@code /swagger-ui/**} cubre el prefijo completo y el
+ * resto de patrones son exactos.
+ */
+public final class PublicRoutes {
+
+    /** Patrones públicos; solo se admite {@code /**} al final. */
+    public static final List<String> PATTERNS = List.of(
+            "/auth/**",
+            "/api/auth/**",
+            "/v2/api-docs",
+            "/v3/api-docs",
+            "/v3/api-docs/**",
+            "/swagger-resources",
+            "/swagger-resources/**",
+            "/configuration/ui",
+            "/configuration/security",
+            "/swagger-ui/**",
+            "/webjars/**",
+            "/swagger-ui.html");
+
+    private static final Node ROOT = compile(PATTERNS);
+
+    private static final RequestMatcher MATCHER = PublicRoutes::isPublic;
+
+    private PublicRoutes() {
+    }
+
+    /**
+     * {@link RequestMatcher} para {@code requestMatchers(...).permitAll()}.
+     */
+    public static RequestMatcher matcher() {
+        return MATCHER;
+    }
+
+    public static boolean isPublic(HttpServletRequest request) {
+        String path = request.getServletPath();
+        if (path == null || path.isEmpty()) {
+            path = request.getPathInfo();
+        }
+        return isPublic(path);
+    }
+
+    /**
+     * Busca la ruta en el trie recorriendo sus segmentos una sola vez.
+     */
+    public static boolean isPublic(String path) {
+        if (path == null || path.isEmpty()) {
+            return false;
+        }
+        Node node = ROOT;
+        int start = path.charAt(0) == '/' ? 1 : 0;
+        while (true) {
+            if (node.prefix) {
+                return true;
+            }
+            int end = path.indexOf('/', start);
+            String segment = end < 0 ? path.substring(start) : path.substring(start, end);
+            node = node.children.get(segment);
+            if (node == null) {
+                return false;
+            }
+            if (end < 0 || end == path.length() - 1) {
+                return node.terminal || node.prefix;
+            }
+            start = end + 1;
+        }
+    }
+
+    private static Node compile(List<String> patterns) {
+        Node root = new Node();
+        for (String pattern : patterns) {
+            boolean prefix = pattern.endsWith("/**");
+            String ruta = prefix ? pattern.substring(0, pattern.length() - 3) : pattern;
+            Node node = root;
+            for (String segment : ruta.substring(1).split("/")) {
+                node = node.children.computeIfAbsent(segment, s -> new Node());
+            }
+            if (prefix) {
+                node.prefix = true;
+            } else {
+                node.terminal = true;
+            }
+        }
+        return root;
+    }
+
+    private static final class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private boolean terminal;
+        private boolean prefix;
+    }
+}
@@ -20,7 +20,6 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -34,7 +33,7 @@ import java.util.List;
  * Configura las reglas de seguridad para la aplicación Facturita.
  *
  * - Expone un filtro de seguridad que autentica mediante JWT (stateless).
- * - Permite acceso público a rutas como Swagger y /login.
+ * - Permite acceso público a las rutas de {@link PublicRoutes} (Swagger, /auth).
  * - Bloquea el resto de rutas a usuarios autenticados.
  * - Registra el filtro personalizado JwtAuthenticationFilter.
  * - Configura el AuthenticationManager basado en Spring Security moderno.
@@ -77,21 +76,13 @@ public class SecurityConfig {
                         .authenticationEntryPoint(unauthorizedEntryPoint)
                         .accessDeniedHandler(accessDeniedHandler))
                 .authorizeHttpRequests(authAll -> authAll
-                        .requestMatchers(
-                                "/api/auth/**",
-                                "/v2/api-docs",
-                                "/v3/api-docs",
-                                "/v3/api-docs/**",
-                                "/swagger-resources",
-                                "/swagger-resources/**",
-                                "/configuration/ui",
-                                "/configuration/security",
-                                "/swagger-ui/**",
-                                "/webjars/**",
-                                "/swagger-ui.html")
+                        // Misma tabla que consulta JwtAuthenticationFilter
+                        .requestMatchers(PublicRoutes.matcher())
                         .permitAll()
                         // annotation in ClienteController
                         .requestMatchers("/api/tenant/cliente").hasAnyRole("ADMIN","USER")
+                        // Métricas con datos de todos los tenants: solo el tenant administrador
+                        .requestMatchers("/api/monitoreo/**", "/api/multitenant/**").hasRole("ADMIN")
                         .anyRequest().authenticated())
                 .sessionManagement(sess -> sess.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authenticationProvider(authenticationProvider).addFilterBefore(
@@ -136,7 +127,10 @@ public class SecurityConfig {
             PasswordEncoder passwordEncoder) {
         var provider = new DaoAuthenticationProvider(userDetailsService);
         log.info("Instanciando DaoAuthenticationProvider con BCryptPasswordEncoder...");
+        // El encoder es BoundedBCryptPasswordEncoder: hashing en executor acotado y
+        // rehash al iniciar sesión cuando el costo almacenado está por debajo del mínimo
         provider.setPasswordEncoder(passwordEncoder);
+        provider.setUserDetailsPasswordService(userDetailsService);
         return provider;
     }
 
@@ -151,17 +145,6 @@ public class SecurityConfig {
         return new ProviderManager(daoAuthenticationProvider);
     }
 
-    /**
-     * Define el algoritmo de cifrado de contraseñas.
-     *
-     * Se utiliza BCrypt, una opción fuerte y probada contra ataques de fuerza
-     * bruta.
-     */
-    @Bean
-    PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
-
     /**
      * Configuración de CORS para permitir peticiones desde el frontend.
      */
@@ -0,0 +1,190 @@
+package com.cna.facturita.security.crypto;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * {@link PasswordEncoder} BCrypt que ejecuta el hashing en un executor propio
+ * con concurrencia y cola acotadas.
+ * <p>
+ * Los requests (hilos virtuales) solo esperan el resultado; si la cola está
+ * llena o la espera supera {@code wait-timeout} se lanza
+ * {@link PasswordHashingBusyException} en lugar de acumular trabajo de CPU.
+ * La carga de CPU la acota el número de hilos, no el timeout: BCrypt no
+ * responde a interrupciones, así que un hash ya iniciado termina aunque el
+ * request se haya rendido; al agotarse la espera solo se retira de la cola
+ * una tarea que aún no empezó.
+ * <p>
+ * El costo de los hashes nuevos se calibra al arrancar: el mayor costo entre
+ * {@code min-cost} y {@code max-cost} cuyo hash tarda como máximo
+ * {@code target-latency}. Como cada nodo puede calibrar distinto,
+ * {@link #upgradeEncoding} no compara con el costo calibrado sino con un piso
+ * estable en todo el cluster ({@code cost} si está fijado, si no
+ * {@code min-cost}): solo se recalculan hashes por debajo de ese piso y nunca
+ * se rebaja uno de costo mayor.
+ */
+@Slf4j
+@Component
+public class BoundedBCryptPasswordEncoder implements PasswordEncoder {
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[aby]?\\$(\\d\\d)\\$");
+
+    @Value("${facturita.security.password.cost:0}")
+    private int fixedCost;
+
+    @Value("${facturita.security.password.min-cost:10}")
+    private int minCost;
+
+    @Value("${facturita.security.password.max-cost:14}")
+    private int maxCost;
+
+    @Value("${facturita.security.password.target-latency:250ms}")
+    private Duration targetLatency;
+
+    @Value("${facturita.security.password.concurrency:0}")
+    private int concurrency;
+
+    @Value("${facturita.security.password.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${facturita.security.password.wait-timeout:5s}")
+    private Duration waitTimeout;
+
+    private final LongAdder rechazados = new LongAdder();
+
+    private volatile BCryptPasswordEncoder delegate;
+
+    private volatile int cost;
+
+    /** Costo mínimo aceptado para hashes almacenados; igual en todos los nodos. */
+    private int upgradeCost;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void init() {
+        int hilos = concurrency > 0 ? concurrency : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger contador = new AtomicInteger();
+        executor = new ThreadPoolExecutor(hilos, hilos, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread t = new Thread(r, "password-hashing-" + contador.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.AbortPolicy());
+
+        cost = fixedCost > 0 ? fixedCost : calibrate();
+        upgradeCost = fixedCost > 0 ? fixedCost : minCost;
+        delegate = new BCryptPasswordEncoder(cost);
+        log.info("[BoundedBCryptPasswordEncoder] Costo BCrypt: {} (rehash por debajo de {}), hilos: {}, cola: {}",
+                cost, upgradeCost, hilos, queueCapacity);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        int stored = costOf(encodedPassword);
+        return stored > 0 && stored < upgradeCost;
+    }
+
+    /**
+     * Estado del executor de hashing.
+     */
+    public HashingStats getStats() {
+        return new HashingStats(cost, executor.getActiveCount(), executor.getQueue().size(),
+                executor.getCompletedTaskCount(), rechazados.sum());
+    }
+
+    private <T> T submit(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            rechazados.increment();
+            throw new PasswordHashingBusyException("Demasiadas verificaciones de contraseña en curso", e);
+        }
+        try {
+            return future.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Libera el lugar en la cola si aún no empezó; un hash en curso no se detiene
+            future.cancel(false);
+            executor.remove((Runnable) future);
+            rechazados.increment();
+            throw new PasswordHashingBusyException("Tiempo de espera agotado verificando la contraseña", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(false);
+            executor.remove((Runnable) future);
+            throw new PasswordHashingBusyException("Verificación de contraseña interrumpida", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Elige el mayor costo cuyo hash no supera la latencia objetivo.
+     */
+    private int calibrate() {
+        int elegido = minCost;
+        for (int c = minCost; c <= maxCost; c++) {
+            BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(c);
+            // Primera ejecución descartada (JIT)
+            encoder.encode("calibracion");
+            long inicio = System.nanoTime();
+            encoder.encode("calibracion");
+            long nanos = System.nanoTime() - inicio;
+            log.debug("[BoundedBCryptPasswordEncoder] Costo {}: {} ms", c, TimeUnit.NANOSECONDS.toMillis(nanos));
+            if (nanos > targetLatency.toNanos()) {
+                break;
+            }
+            elegido = c;
+        }
+        return elegido;
+    }
+
+    private static int costOf(String encodedPassword) {
+        if (encodedPassword == null) {
+            return -1;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return matcher.find() ? Integer.parseInt(matcher.group(1)) : -1;
+    }
+
+    public record HashingStats(int cost, int activos, int enCola, long completados, long rechazados) {
+    }
+}
@@ -0,0 +1,16 @@
+package com.cna.facturita.security.crypto;
+
+/**
+ * El executor de hashing de contraseñas está saturado (cola llena o tiempo de
+ * espera agotado). El cliente debe reintentar más tarde.
+ */
+public class PasswordHashingBusyException extends RuntimeException {
+
+    public PasswordHashingBusyException(String message) {
+        super(message);
+    }
+
+    public PasswordHashingBusyException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -1,5 +1,8 @@
 package com.cna.facturita.security.jwt;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -12,13 +15,22 @@ import org.springframework.core.Ordered;
 import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.lang.NonNull;
 import org.springframework.web.filter.OncePerRequestFilter;
+import com.cna.facturita.multitenant.filter.TenantFilter;
+import com.cna.facturita.multitenant.resolver.SubdomainTenantResolver;
+import com.cna.facturita.security.adaptador.JwtUserDetails;
+import com.cna.facturita.security.audit.RequestAuditLogger;
+import com.cna.facturita.security.config.PublicRoutes;
 import com.cna.facturita.security.service.CustomUserDetailsService;
 import com.cna.facturita.security.service.JwtService;
+import com.cna.facturita.security.service.UserStatusService;
 
 import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
 
 @Slf4j
 @Order(Ordered.LOWEST_PRECEDENCE)
@@ -29,41 +41,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private JwtService jwtService;
     @Autowired
     private CustomUserDetailsService userDetailsService;
+    @Autowired
+    private UserStatusService userStatusService;
+    @Autowired
+    private SubdomainTenantResolver tenantResolver;
+    @Autowired
+    private RequestAuditLogger requestAuditLogger;
 
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain)
             throws ServletException, IOException {
 
-        // try to get JWT in cookie or in Authorization Header
-        String jwt = jwtService.getJwtFromCookies(request);
-        final String authHeader = request.getHeader("Authorization");
-
-        log.info("Petición a URI: {}", request.getRequestURI());
-        log.info("JWT en cookie: {}", jwt);
-        log.info("Authorization header: {}", authHeader);
-
-        if((jwt == null && (authHeader ==  null || !authHeader.startsWith("Bearer "))) || request.getRequestURI().contains("/auth")){
-            log.info("No se encontró JWT o es endpoint de autenticación. Se permite la petición sin autenticación.");
-            filterChain.doFilter(request, response);
-            return;
-        }
-
-        // If the JWT is not in the cookies but in the "Authorization" header
-        if (jwt == null && authHeader.startsWith("Bearer ")) {
-            jwt = authHeader.substring(7); // after "Bearer "
-            log.info("JWT extraído del header Authorization: {}", jwt);
-        }
-
-
-        final String userEmail =jwtService.extractUserName(jwt);
-        log.info("Usuario extraído del JWT: {}", userEmail);
-        /*
-           SecurityContextHolder: is where Spring Security stores the details of who is authenticated.
-           Spring Security uses that information for authorization.*/
-
-
-        String path = request.getServletPath();
-        if ("/auth/login".equals(path) || path.startsWith("/swagger") || path.startsWith("/v3/api-docs")) {
+        // Rutas públicas: no se parsea el JWT
+        if (PublicRoutes.isPublic(request)) {
             filterChain.doFilter(request, response);
             return;
         }
@@ -75,29 +65,79 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         final String jwt = authHeader.substring(7);
-        String username = null;
+        // Un único parseo verifica firma y expiración; los tokens repetidos salen del cache
+        final Claims claims;
         try {
-            username = jwtService.extractUsername(jwt);
-        } catch (io.jsonwebtoken.ExpiredJwtException ex) {
-            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-            response.setContentType("application/json");
-            response.getWriter().write(
-                    "{\"message\": \"Su sesión ha expirado. Por favor, inicie sesión nuevamente.\", \"status\": \"401\"}");
-            log.warn("JWT expirado: {}", ex.getMessage());
+            claims = jwtService.parseClaims(jwt);
+        } catch (ExpiredJwtException ex) {
+            requestAuditLogger.failure(request, "expirado", jwt);
+            writeUnauthorized(response, "Su sesión ha expirado. Por favor, inicie sesión nuevamente.");
+            return;
+        } catch (JwtException | IllegalArgumentException ex) {
+            requestAuditLogger.failure(request, "invalido", jwt);
+            log.debug("JWT inválido: {}", ex.getMessage());
+            filterChain.doFilter(request, response);
             return;
         }
 
+        String username = claims.getSubject();
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            var userDetails = userDetailsService.loadUserByUsername(username);
-            if (jwtService.isTokenValid(jwt, userDetails.getUsername())) {
-                var authToken = new UsernamePasswordAuthenticationToken(userDetails, null,
-                        userDetails.getAuthorities());
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authToken);
-                log.info("Usuario autenticado: {}", username);
+            String tokenTenant = claims.get(JwtService.CLAIM_TENANT, String.class);
+            UserDetails userDetails;
+            if (tokenTenant != null) {
+                // Token con claims: se autentica sin consultar la base de datos
+                String tenant = currentTenant(request);
+                if (!tokenTenant.equals(tenant)) {
+                    requestAuditLogger.failure(request, "otro_tenant", jwt);
+                    log.debug("JWT emitido para tenant {} usado en tenant {}", tokenTenant, tenant);
+                    writeUnauthorized(response, "Token no válido para este sitio.");
+                    return;
+                }
+                if (!userStatusService.isAllowed(tenant, username, claims.getIssuedAt())) {
+                    requestAuditLogger.failure(request, "revocado", jwt);
+                    writeUnauthorized(response, "Su sesión ha sido revocada. Por favor, inicie sesión nuevamente.");
+                    return;
+                }
+                userDetails = new JwtUserDetails(claims.get(JwtService.CLAIM_UID, Integer.class), username, tenant,
+                        rolesOf(claims));
+            } else {
+                // Tokens emitidos antes de incluir claims: se mantiene la consulta al usuario
+                userDetails = userDetailsService.loadUserByUsername(username);
+                if (!username.equals(userDetails.getUsername())) {
+                    filterChain.doFilter(request, response);
+                    return;
+                }
             }
+            var authToken = new UsernamePasswordAuthenticationToken(userDetails, null,
+                    userDetails.getAuthorities());
+            authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(authToken);
+            requestAuditLogger.success(request, username, jwt);
         }
 
         filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+
+    /**
+     * Tenant del request: el resuelto por TenantFilter o, si este aún no se
+     * ejecutó en la cadena, el del resolver (cacheado).
+     */
+    private String currentTenant(HttpServletRequest request) {
+        Object tenant = request.getAttribute(TenantFilter.TENANT_ATTRIBUTE);
+        return tenant != null ? (String) tenant : tenantResolver.resolveTenant(request);
+    }
+
+    private static List<String> rolesOf(Claims claims) {
+        Object roles = claims.get(JwtService.CLAIM_ROLES);
+        if (roles instanceof Collection<?> values) {
+            return values.stream().map(String::valueOf).toList();
+        }
+        return List.of();
+    }
+
+    private static void writeUnauthorized(HttpServletResponse response, String message) throws IOException {
+        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+        response.setContentType("application/json");
+        response.getWriter().write("{\"message\": \"" + message + "\", \"status\": \"401\"}");
+    }
+}
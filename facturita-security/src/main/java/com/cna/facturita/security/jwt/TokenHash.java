@@ -0,0 +1,27 @@
+package com.cna.facturita.security.jwt;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * Hash de tokens para usarlos como clave sin guardar el valor original.
+ */
+public final class TokenHash {
+
+    private TokenHash() {
+    }
+
+    /**
+     * SHA-256 del token en Base64 URL-safe sin relleno.
+     */
+    public static String sha256(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.cna.facturita.security.ratelimit;
+
+/**
+ * Se superó el límite de intentos de login para el usuario o la IP.
+ */
+public class LoginRateLimitedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public LoginRateLimitedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
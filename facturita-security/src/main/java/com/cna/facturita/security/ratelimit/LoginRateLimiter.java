@@ -0,0 +1,102 @@
+package com.cna.facturita.security.ratelimit;
+
+import com.cna.facturita.security.ratelimit.SlidingWindowRateLimiter.RateLimiterStats;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Límite de intentos de login por (tenant, email) y por (tenant, IP), que se
+ * verifica antes de ejecutar BCrypt.
+ * <p>
+ * Un intento solo consume permisos si ambos límites lo admiten: si el límite
+ * por email lo rechaza se devuelve el permiso de la IP. Un login exitoso
+ * ({@link #onSuccess}) no cuenta: reinicia la ventana del email y devuelve el
+ * permiso de la IP. Ver {@link SlidingWindowRateLimiter} sobre el
+ * dimensionamiento de {@code max-keys}.
+ * <p>
+ * La IP es la de {@code getRemoteAddr()}: detrás de un proxy inverso requiere
+ * {@code server.forward-headers-strategy=native} y que el proxy esté en
+ * {@code server.tomcat.remoteip.internal-proxies}; si no, todos los clientes
+ * comparten la IP del proxy y el límite por IP bloquearía el login de todo el
+ * tenant.
+ */
+@Slf4j
+@Component
+public class LoginRateLimiter {
+
+    @Value("${facturita.security.login-rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${facturita.security.login-rate-limit.window:1m}")
+    private Duration window;
+
+    @Value("${facturita.security.login-rate-limit.max-per-email:10}")
+    private int maxPorEmail;
+
+    @Value("${facturita.security.login-rate-limit.max-per-ip:50}")
+    private int maxPorIp;
+
+    @Value("${facturita.security.login-rate-limit.max-keys:100000}")
+    private long maxKeys;
+
+    private SlidingWindowRateLimiter porEmail;
+
+    private SlidingWindowRateLimiter porIp;
+
+    @PostConstruct
+    void init() {
+        porEmail = new SlidingWindowRateLimiter(maxPorEmail, window, maxKeys);
+        porIp = new SlidingWindowRateLimiter(maxPorIp, window, maxKeys);
+    }
+
+    /**
+     * Registra un intento de login.
+     *
+     * @throws LoginRateLimitedException si se supera alguno de los límites
+     */
+    public void check(String tenant, String email, String ip) {
+        if (!enabled) {
+            return;
+        }
+        String ipKey = tenant + '|' + ip;
+        long retryAfter = porIp.tryAcquire(ipKey);
+        if (retryAfter == 0 && email != null) {
+            retryAfter = porEmail.tryAcquire(emailKey(tenant, email));
+            if (retryAfter > 0) {
+                porIp.release(ipKey);
+            }
+        }
+        if (retryAfter > 0) {
+            log.debug("[LoginRateLimiter] Intentos de login excedidos en tenant {} (ip: {})", tenant, ip);
+            throw new LoginRateLimitedException("Demasiados intentos de inicio de sesión", retryAfter);
+        }
+    }
+
+    /**
+     * Registra un login exitoso: el intento deja de contar para ambos límites.
+     */
+    public void onSuccess(String tenant, String email, String ip) {
+        if (!enabled) {
+            return;
+        }
+        porIp.release(tenant + '|' + ip);
+        if (email != null) {
+            porEmail.reset(emailKey(tenant, email));
+        }
+    }
+
+    private static String emailKey(String tenant, String email) {
+        return tenant + '|' + email.toLowerCase();
+    }
+
+    public LoginRateLimiterStats getStats() {
+        return new LoginRateLimiterStats(porEmail.getStats(), porIp.getStats());
+    }
+
+    public record LoginRateLimiterStats(RateLimiterStats porEmail, RateLimiterStats porIp) {
+    }
+}
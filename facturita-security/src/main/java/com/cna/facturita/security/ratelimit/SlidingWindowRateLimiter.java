@@ -0,0 +1,135 @@
+package com.cna.facturita.security.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limitador de ventana deslizante aproximada (dos contadores por clave).
+ * <p>
+ * Cada clave guarda solo el inicio de la ventana actual y los contadores de la
+ * ventana actual y la anterior; el total estimado pondera la ventana anterior
+ * por la fracción que aún se solapa. Las claves viven en un cache acotado y
+ * las actualizaciones se serializan con locks por franja (hash de la clave),
+ * no con un lock global.
+ * <p>
+ * El cache es acotado: si se inundan más de {@code maxKeys} claves distintas
+ * dentro de dos ventanas, Caffeine puede desalojar la ventana de una clave que
+ * estaba limitada y su conteo vuelve a cero. {@code maxKeys} debe dimensionarse
+ * por encima del número de claves activas esperado en ese intervalo.
+ */
+public class SlidingWindowRateLimiter {
+
+    private static final int STRIPES = 64;
+
+    private final int limit;
+    private final long windowNanos;
+    private final Cache<String, Window> windows;
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+    private final LongAdder permitidos = new LongAdder();
+    private final LongAdder rechazados = new LongAdder();
+
+    public SlidingWindowRateLimiter(int limit, Duration window, long maxKeys) {
+        this.limit = limit;
+        this.windowNanos = window.toNanos();
+        this.windows = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                // Pasadas dos ventanas sin actividad la clave ya no aporta al conteo
+                .expireAfterAccess(window.multipliedBy(2))
+                .build();
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Registra un intento para la clave si no supera el límite.
+     *
+     * @return 0 si se permite; si no, los segundos sugeridos antes de reintentar
+     */
+    public long tryAcquire(String key) {
+        return tryAcquire(key, System.nanoTime());
+    }
+
+    long tryAcquire(String key, long now) {
+        Window window = windows.get(key, k -> new Window(now));
+        ReentrantLock lock = locks[(key.hashCode() & 0x7fffffff) % STRIPES];
+        lock.lock();
+        try {
+            window.roll(now, windowNanos);
+            double solapamiento = 1.0 - (double) (now - window.inicio) / windowNanos;
+            double estimado = window.anterior * solapamiento + window.actual;
+            if (estimado >= limit) {
+                rechazados.increment();
+                long restante = window.inicio + windowNanos - now;
+                return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(restante));
+            }
+            window.actual++;
+            permitidos.increment();
+            return 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Devuelve un permiso tomado con {@link #tryAcquire} que no debe contar.
+     */
+    public void release(String key) {
+        Window window = windows.getIfPresent(key);
+        if (window == null) {
+            return;
+        }
+        ReentrantLock lock = locks[(key.hashCode() & 0x7fffffff) % STRIPES];
+        lock.lock();
+        try {
+            if (window.actual > 0) {
+                window.actual--;
+                permitidos.decrement();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Olvida los intentos registrados para la clave.
+     */
+    public void reset(String key) {
+        windows.invalidate(key);
+    }
+
+    public RateLimiterStats getStats() {
+        return new RateLimiterStats(limit, permitidos.sum(), rechazados.sum(), windows.estimatedSize());
+    }
+
+    private static final class Window {
+        private long inicio;
+        private int anterior;
+        private int actual;
+
+        private Window(long inicio) {
+            this.inicio = inicio;
+        }
+
+        private void roll(long now, long windowNanos) {
+            long periodos = (now - inicio) / windowNanos;
+            if (periodos == 1) {
+                anterior = actual;
+                actual = 0;
+                inicio += windowNanos;
+            } else if (periodos > 1) {
+                anterior = 0;
+                actual = 0;
+                inicio += periodos * windowNanos;
+            }
+        }
+    }
+
+    public record RateLimiterStats(int limite, long permitidos, long rechazados, long claves) {
+    }
+}
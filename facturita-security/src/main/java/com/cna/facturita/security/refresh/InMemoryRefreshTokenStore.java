@@ -0,0 +1,96 @@
+package com.cna.facturita.security.refresh;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link RefreshTokenStore} en memoria: un cache por tenant, acotado, cuyas
+ * entradas expiran con el propio token. Los tokens usados se conservan hasta
+ * expirar para poder detectar su reutilización.
+ */
+@Component
+public class InMemoryRefreshTokenStore implements RefreshTokenStore {
+
+    @Value("${jwt.refresh.max-per-tenant:100000}")
+    private long maxPerTenant;
+
+    @Value("${jwt.refresh.ttl:14d}")
+    private Duration ttl;
+
+    private final Map<String, TenantTokens> porTenant = new ConcurrentHashMap<>();
+
+    @Override
+    public void save(RefreshToken token) {
+        tokensDe(token.tenant()).tokens().put(token.hash(), token);
+    }
+
+    @Override
+    public Optional<RefreshToken> find(String tenant, String hash) {
+        TenantTokens tokens = porTenant.get(tenant);
+        return tokens != null ? Optional.ofNullable(tokens.tokens().getIfPresent(hash)) : Optional.empty();
+    }
+
+    @Override
+    public boolean markUsed(String tenant, String hash) {
+        TenantTokens tokens = porTenant.get(tenant);
+        if (tokens == null) {
+            return false;
+        }
+        RefreshToken actual = tokens.tokens().getIfPresent(hash);
+        return actual != null && !actual.usado()
+                && tokens.tokens().asMap().replace(hash, actual, actual.marcarUsado());
+    }
+
+    @Override
+    public void revokeFamily(String tenant, String familia) {
+        tokensDe(tenant).familiasRevocadas().put(familia, Boolean.TRUE);
+    }
+
+    @Override
+    public boolean isFamilyRevoked(String tenant, String familia) {
+        TenantTokens tokens = porTenant.get(tenant);
+        return tokens != null && tokens.familiasRevocadas().getIfPresent(familia) != null;
+    }
+
+    private TenantTokens tokensDe(String tenant) {
+        return porTenant.computeIfAbsent(tenant, t -> new TenantTokens(
+                Caffeine.newBuilder()
+                        .maximumSize(maxPerTenant)
+                        .expireAfter(new Expiry<String, RefreshToken>() {
+                            @Override
+                            public long expireAfterCreate(String key, RefreshToken token, long currentTime) {
+                                return Math.max(0, Duration.between(Instant.now(), token.expira()).toNanos());
+                            }
+
+                            @Override
+                            public long expireAfterUpdate(String key, RefreshToken token, long currentTime,
+                                    long currentDuration) {
+                                return currentDuration;
+                            }
+
+                            @Override
+                            public long expireAfterRead(String key, RefreshToken token, long currentTime,
+                                    long currentDuration) {
+                                return currentDuration;
+                            }
+                        })
+                        .build(),
+                // Una familia revocada no puede tener tokens vivos más allá del TTL
+                Caffeine.newBuilder()
+                        .maximumSize(maxPerTenant)
+                        .expireAfterWrite(ttl)
+                        .build()));
+    }
+
+    private record TenantTokens(Cache<String, RefreshToken> tokens, Cache<String, Boolean> familiasRevocadas) {
+    }
+}
@@ -0,0 +1,31 @@
+package com.cna.facturita.security.refresh;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Refresh token almacenado. Solo se guarda el hash SHA-256 del valor opaco
+ * que recibe el cliente.
+ *
+ * @param hash         Hash del token entregado al cliente
+ * @param familia      Identificador de la sesión: todos los tokens rotados
+ *                     desde un mismo login comparten familia
+ * @param tenant       Tenant donde se emitió
+ * @param email        Usuario
+ * @param uid          Id del usuario en su esquema
+ * @param roles        Autoridades del usuario al iniciar sesión
+ * @param inicioSesion Instante del login que originó la familia
+ * @param expira       Instante de expiración de este token
+ * @param usado        {@code true} si ya se canjeó
+ */
+public record RefreshToken(String hash, String familia, String tenant, String email, Integer uid,
+        List<String> roles, Instant inicioSesion, Instant expira, boolean usado) {
+
+    public RefreshToken marcarUsado() {
+        return new RefreshToken(hash, familia, tenant, email, uid, roles, inicioSesion, expira, true);
+    }
+
+    public boolean isExpirado(Instant ahora) {
+        return !expira.isAfter(ahora);
+    }
+}
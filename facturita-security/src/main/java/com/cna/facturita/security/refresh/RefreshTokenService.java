@@ -0,0 +1,102 @@
+package com.cna.facturita.security.refresh;
+
+import com.cna.facturita.security.jwt.TokenHash;
+import com.cna.facturita.security.service.UserStatusService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Emisión y rotación de refresh tokens opacos.
+ * <p>
+ * Cada canje invalida el token presentado y entrega uno nuevo de la misma
+ * familia. Si un token ya canjeado vuelve a presentarse (posible robo) se
+ * revoca la familia completa y la sesión debe iniciarse de nuevo. El canje no
+ * toca BCrypt ni la base de datos: solo el almacén en memoria y el estado
+ * cacheado del usuario.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RefreshTokenService {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final RefreshTokenStore store;
+    private final UserStatusService userStatusService;
+
+    @Value("${jwt.refresh.ttl:14d}")
+    private Duration ttl;
+
+    /**
+     * Inicia una familia nueva (login) y devuelve el valor opaco del token.
+     */
+    public String issue(String tenant, String email, Integer uid, List<String> roles) {
+        Instant ahora = Instant.now();
+        return emitir(tenant, email, uid, roles, UUID.randomUUID().toString(), ahora);
+    }
+
+    /**
+     * Canjea un refresh token por uno nuevo de la misma familia.
+     *
+     * @return el token canjeado y el valor del nuevo, o vacío si el token no es
+     *         válido, expiró, fue revocado o ya había sido usado
+     */
+    public Optional<Rotation> rotate(String tenant, String rawToken) {
+        String hash = TokenHash.sha256(rawToken);
+        Optional<RefreshToken> encontrado = store.find(tenant, hash);
+        if (encontrado.isEmpty()) {
+            return Optional.empty();
+        }
+        RefreshToken token = encontrado.get();
+        if (token.isExpirado(Instant.now()) || store.isFamilyRevoked(tenant, token.familia())) {
+            return Optional.empty();
+        }
+        if (!store.markUsed(tenant, hash)) {
+            log.warn("[RefreshTokenService] Reutilización de refresh token detectada para {} en {}; se revoca la sesión",
+                    token.email(), tenant);
+            store.revokeFamily(tenant, token.familia());
+            return Optional.empty();
+        }
+        if (!userStatusService.isAllowed(tenant, token.email(), Date.from(token.inicioSesion()))) {
+            store.revokeFamily(tenant, token.familia());
+            return Optional.empty();
+        }
+        String nuevo = emitir(tenant, token.email(), token.uid(), token.roles(), token.familia(), token.inicioSesion());
+        return Optional.of(new Rotation(token, nuevo));
+    }
+
+    /**
+     * Cierra la sesión asociada al token (logout).
+     */
+    public void revoke(String tenant, String rawToken) {
+        store.find(tenant, TokenHash.sha256(rawToken))
+                .ifPresent(token -> store.revokeFamily(tenant, token.familia()));
+    }
+
+    private String emitir(String tenant, String email, Integer uid, List<String> roles, String familia,
+            Instant inicioSesion) {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String valor = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        store.save(new RefreshToken(TokenHash.sha256(valor), familia, tenant, email, uid, List.copyOf(roles),
+                inicioSesion, Instant.now().plus(ttl), false));
+        return valor;
+    }
+
+    /**
+     * Resultado de un canje: el token consumido y el valor del nuevo.
+     */
+    public record Rotation(RefreshToken anterior, String nuevoToken) {
+    }
+}
@@ -0,0 +1,25 @@
+package com.cna.facturita.security.refresh;
+
+import java.util.Optional;
+
+/**
+ * Almacenamiento de refresh tokens, particionado por tenant.
+ */
+public interface RefreshTokenStore {
+
+    void save(RefreshToken token);
+
+    Optional<RefreshToken> find(String tenant, String hash);
+
+    /**
+     * Marca el token como usado de forma atómica.
+     *
+     * @return {@code true} si esta llamada hizo la transición; {@code false}
+     *         si el token ya estaba usado o no existe
+     */
+    boolean markUsed(String tenant, String hash);
+
+    void revokeFamily(String tenant, String familia);
+
+    boolean isFamilyRevoked(String tenant, String familia);
+}
@@ -2,54 +2,162 @@ package com.cna.facturita.security.service;
 
 import com.cna.facturita.core.model.Usuario;
 import com.cna.facturita.core.model.tenant.UsuarioTenant;
+import com.cna.facturita.core.model.tenant.UsuarioTenantListener.UsuarioTenantModificadoEvent;
 import com.cna.facturita.core.repository.UsuarioRepository;
 import com.cna.facturita.core.repository.tenant.UsuarioRepositoryTenant;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.security.core.userdetails.*;
 import org.springframework.stereotype.Service;
 import com.cna.facturita.multitenant.context.TenantContext;
 
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Carga usuarios del esquema administrador o del tenant actual.
+ * <p>
+ * Los usuarios se cachean en un único cache acotado y con TTL por (tenant,
+ * email). Se guarda una copia inmutable y se construye un {@link User} nuevo
+ * en cada lectura, porque Spring Security borra la contraseña del principal
+ * tras autenticar. Cualquier escritura de un usuario de tenant
+ * ({@link UsuarioTenantModificadoEvent}) descarta los usuarios cacheados de
+ * ese tenant; los usuarios administradores se descartan con {@link #evict}.
+ * <p>
+ * Los usuarios del tenant administrador reciben además el rol {@code ADMIN}.
+ * <p>
+ * Como {@link UserDetailsPasswordService} guarda el hash recalculado cuando
+ * el costo BCrypt almacenado está por debajo del mínimo configurado.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UsuarioRepository usuarioRepository;
     private final UsuarioRepositoryTenant usuarioRepositoryTenant;
 
+    @Value("${facturita.security.user-cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${facturita.security.user-cache.ttl:5m}")
+    private Duration ttl;
+
+    private Cache<UserKey, CachedUser> cache;
+
+    @PostConstruct
+    void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        log.debug("[CustomUserDetailsService] -> [loadUserByUsername] ejecutando...");
-        log.debug("[CustomUserDetailsService] -> [loadUserByUsername] Buscando usuario por correo: {}", email);
         String currentTenant = TenantContext.getCurrentTenant();
-        log.debug("[CustomUserDetailsService] -> [loadUserByUsername] Tenant actual: {}", currentTenant);
-        if (currentTenant == null || currentTenant.equalsIgnoreCase("default") || currentTenant.equalsIgnoreCase("cna")) {
+        UserKey key = new UserKey(currentTenant, email);
+        CachedUser cached = cache.getIfPresent(key);
+        if (cached == null) {
+            cached = cargar(currentTenant, email);
+            cache.put(key, cached);
+        }
+        return User.builder()
+                .username(cached.username())
+                .password(cached.password())
+                .roles(cached.roles().toArray(String[]::new))
+                .build();
+    }
+
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        String currentTenant = TenantContext.getCurrentTenant();
+        String email = user.getUsername();
+        if (esTenantAdministrador(currentTenant)) {
+            usuarioRepository.findByEmail(email).ifPresent(usuario -> {
+                usuario.setPassword(newPassword);
+                usuarioRepository.save(usuario);
+            });
+        } else {
+            usuarioRepositoryTenant.findByEmail(email).ifPresent(usuario -> {
+                usuario.setPassword(newPassword);
+                usuarioRepositoryTenant.save(usuario);
+            });
+        }
+        evict(currentTenant, email);
+        log.debug("[CustomUserDetailsService] -> [updatePassword] Hash actualizado para {} en tenant {}", email,
+                currentTenant);
+        return User.withUserDetails(user).password(newPassword).build();
+    }
+
+    /**
+     * Descarta el usuario cacheado; se invoca al crear, modificar o eliminar usuarios.
+     */
+    public void evict(String tenant, String email) {
+        if (email != null) {
+            cache.invalidate(new UserKey(tenant, email));
+            log.debug("[CustomUserDetailsService] -> [evict] {} en tenant {}", email, tenant);
+        }
+    }
+
+    /**
+     * Descarta todos los usuarios cacheados del tenant actual: el evento solo
+     * trae el email posterior a la escritura y un cambio de email dejaría el
+     * anterior en el cache.
+     */
+    @EventListener
+    public void onUsuarioTenantModificado(UsuarioTenantModificadoEvent event) {
+        String tenant = TenantContext.getCurrentTenant();
+        cache.asMap().keySet().removeIf(key -> key.tenant() != null && key.tenant().equals(tenant));
+        log.debug("[CustomUserDetailsService] -> [evict] usuarios del tenant {}", tenant);
+    }
+
+    /**
+     * Aciertos/fallos del cache de usuarios.
+     */
+    public UserCacheStats getCacheStats() {
+        CacheStats stats = cache.stats();
+        return new UserCacheStats(stats.hitCount(), stats.missCount(), stats.hitRate(), cache.estimatedSize());
+    }
+
+    private CachedUser cargar(String currentTenant, String email) {
+        log.debug("[CustomUserDetailsService] -> [loadUserByUsername] Buscando usuario por correo: {} en tenant: {}",
+                email, currentTenant);
+        if (esTenantAdministrador(currentTenant)) {
             Usuario usuario = usuarioRepository.findByEmail(email)
                     .orElseThrow(() -> {
                         log.debug("[CustomUserDetailsService] -> [loadUserByUsername] ❌ Usuario no encontrado: {}", email);
                         return new UsernameNotFoundException("Usuario no encontrado: " + email);
                     });
-            log.debug("[CustomUserDetailsService] -> [loadUserByUsername] ✅ Usuario encontrado usuario: {}", usuario);
-            return User.builder()
-                    .username(usuario.getEmail())
-                    .password(usuario.getPassword())
-                    .roles("USER")
-                    .build();
+            return new CachedUser(usuario.getEmail(), usuario.getPassword(), List.of("USER", "ADMIN"));
         } else {
             UsuarioTenant usuarioTenant = usuarioRepositoryTenant.findByEmail(email)
                     .orElseThrow(() -> {
                         log.debug("[CustomUserDetailsService] -> [loadUserByUsername] ❌ UsuarioTenant no encontrado: {}", email);
                         return new UsernameNotFoundException("UsuarioTenant no encontrado: " + email);
                     });
-            log.debug("[CustomUserDetailsService] -> [loadUserByUsername] ✅ UsuarioTenant encontrado: {}", usuarioTenant);
-            // Si tienes un adaptador CustomUserDetails para UsuarioTenant, úsalo aquí
-            return org.springframework.security.core.userdetails.User.builder()
-                    .username(usuarioTenant.getEmail())
-                    .password(usuarioTenant.getPassword())
-                    .roles("USER")
-                    .build();
+            return new CachedUser(usuarioTenant.getEmail(), usuarioTenant.getPassword(), List.of("USER"));
         }
     }
-}
\ No newline at end of file
+
+    private static boolean esTenantAdministrador(String tenant) {
+        return tenant == null || tenant.equalsIgnoreCase("default") || tenant.equalsIgnoreCase("cna");
+    }
+
+    private record UserKey(String tenant, String email) {
+    }
+
+    private record CachedUser(String username, String password, List<String> roles) {
+    }
+
+    public record UserCacheStats(long hits, long misses, double hitRate, long size) {
+    }
+}
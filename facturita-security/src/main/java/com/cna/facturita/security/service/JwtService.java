@@ -1,27 +1,88 @@
 package com.cna.facturita.security.service;
 
+import com.cna.facturita.security.jwt.TokenHash;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
+/**
+ * Emisión y validación de tokens JWT.
+ * <p>
+ * La clave y el {@link JwtParser} se construyen una sola vez. Cada token se
+ * verifica (firma y expiración) en un único parseo y sus claims quedan en un
+ * cache acotado, indexado por el SHA-256 del token, que expira cada entrada
+ * en el {@code exp} del propio token: los requests repetidos con el mismo
+ * bearer no vuelven a verificar la firma.
+ */
 @Service
 public class JwtService {
 
+    /** Claim con el tenant para el que se emitió el token. */
+    public static final String CLAIM_TENANT = "tenant";
+    /** Claim con las autoridades del usuario (ej: ROLE_USER). */
+    public static final String CLAIM_ROLES = "roles";
+    /** Claim con el id del usuario en su esquema. */
+    public static final String CLAIM_UID = "uid";
+
     @Value("${jwt.secret}")
     private String secret;
 
     @Value("${jwt.expiration}")
     private long expirationMs;
 
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    @Value("${jwt.claims-cache.max-size:10000}")
+    private long claimsCacheMaxSize;
+
+    private Key signingKey;
+
+    private JwtParser parser;
+
+    private Cache<String, Claims> claimsCache;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .setAllowedClockSkewSeconds(60)
+                .build();
+        claimsCache = Caffeine.newBuilder()
+                .maximumSize(claimsCacheMaxSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String key, Claims claims, long currentTime) {
+                        return remainingNanos(claims);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+                        return remainingNanos(claims);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
     }
 
     public String extractUsername(String token) {
@@ -29,8 +90,7 @@ public class JwtService {
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+        return claimsResolver.apply(parseClaims(token));
     }
 
     public String generateToken(String username) {
@@ -38,33 +98,80 @@ public class JwtService {
                 .setSubject(username)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expirationMs))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    /**
+     * Genera un token que lleva tenant, roles e id de usuario como claims, de
+     * modo que el filtro JWT pueda autenticar sin consultar la base de datos.
+     */
+    public String generateToken(String username, String tenant, Integer uid, Collection<String> roles) {
+        return Jwts.builder()
+                .setSubject(username)
+                .claim(CLAIM_TENANT, tenant)
+                .claim(CLAIM_UID, uid)
+                .claim(CLAIM_ROLES, List.copyOf(roles))
+                .setIssuedAt(new Date(System.currentTimeMillis()))
+                .setExpiration(new Date(System.currentTimeMillis() + expirationMs))
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     public boolean isTokenValid(String token, String username) {
-        final String extractedUsername = extractUsername(token);
-        return (extractedUsername.equals(username)) && !isTokenExpired(token);
+        Claims claims = parseClaims(token);
+        return claims.getSubject().equals(username) && !isExpired(claims);
     }
 
     public long getExpirationInSeconds() {
         return expirationMs / 1000; // Convertir milisegundos a segundos
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    /**
+     * Verifica el token y devuelve sus claims, desde el cache si ya fue
+     * verificado antes.
+     *
+     * @throws io.jsonwebtoken.JwtException si la firma no es válida o el token expiró
+     */
+    public Claims parseClaims(String token) {
+        String key = TokenHash.sha256(token);
+        Claims claims = claimsCache.getIfPresent(key);
+        if (claims != null) {
+            if (!isExpired(claims)) {
+                return claims;
+            }
+            claimsCache.invalidate(key);
+        }
+        claims = parser.parseClaimsJws(token).getBody();
+        // Tokens dentro de la tolerancia de reloj ya vencidos no se cachean
+        if (remainingNanos(claims) > 0) {
+            claimsCache.put(key, claims);
+        }
+        return claims;
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    /**
+     * Aciertos/fallos del cache de claims verificados.
+     */
+    public ClaimsCacheStats getCacheStats() {
+        CacheStats stats = claimsCache.stats();
+        return new ClaimsCacheStats(stats.hitCount(), stats.missCount(), stats.hitRate(),
+                claimsCache.estimatedSize());
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .setAllowedClockSkewSeconds(60)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    private static boolean isExpired(Claims claims) {
+        Date expiration = claims.getExpiration();
+        return expiration != null && expiration.before(new Date());
+    }
+
+    private static long remainingNanos(Claims claims) {
+        Date expiration = claims.getExpiration();
+        if (expiration == null) {
+            return Long.MAX_VALUE;
+        }
+        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, expiration.getTime() - System.currentTimeMillis()));
+    }
+
+    public record ClaimsCacheStats(long hits, long misses, double hitRate, long size) {
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,145 @@
+package com.cna.facturita.security.service;
+
+import com.cna.facturita.core.model.tenant.UsuarioTenantListener.UsuarioTenantModificadoEvent;
+import com.cna.facturita.core.repository.UsuarioRepository;
+import com.cna.facturita.core.repository.tenant.UsuarioRepositoryTenant;
+import com.cna.facturita.multitenant.context.TenantContext;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+
+/**
+ * Verificación opcional de bloqueo/revocación para tokens ya verificados.
+ * <p>
+ * El estado de cada usuario (activo/bloqueado) se consulta a lo sumo una vez
+ * por {@code jwt.status-check.ttl} y se guarda en memoria; las revocaciones
+ * explícitas ({@link #revoke}) invalidan los tokens emitidos antes de ese
+ * instante hasta que expiren.
+ * <p>
+ * Se revoca al eliminar un usuario administrador y cuando un usuario de
+ * tenant queda inactivo, bloqueado o eliminado
+ * ({@link UsuarioTenantModificadoEvent}); el cierre de sesión solo revoca su
+ * refresh token, no los demás accesos del usuario.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserStatusService {
+
+    private final UsuarioRepository usuarioRepository;
+    private final UsuarioRepositoryTenant usuarioRepositoryTenant;
+
+    @Value("${jwt.status-check.enabled:true}")
+    private boolean enabled;
+
+    @Value("${jwt.status-check.ttl:30s}")
+    private Duration ttl;
+
+    @Value("${jwt.status-check.max-size:10000}")
+    private long maxSize;
+
+    @Value("${jwt.expiration}")
+    private long expirationMs;
+
+    private Cache<StatusKey, Boolean> activos;
+
+    private Cache<StatusKey, Instant> revocaciones;
+
+    @PostConstruct
+    void init() {
+        activos = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+        // Pasado el tiempo de vida del token la revocación ya no es necesaria
+        revocaciones = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(expirationMs))
+                .build();
+    }
+
+    /**
+     * Indica si un token del usuario emitido en {@code issuedAt} sigue siendo
+     * aceptable: no revocado y usuario activo.
+     */
+    public boolean isAllowed(String tenant, String email, Date issuedAt) {
+        if (!enabled) {
+            return true;
+        }
+        StatusKey key = new StatusKey(tenant, email);
+        Instant revocado = revocaciones.getIfPresent(key);
+        if (revocado != null && (issuedAt == null
+                || !issuedAt.toInstant().isAfter(revocado.truncatedTo(ChronoUnit.SECONDS)))) {
+            return false;
+        }
+        // Si la consulta falla el loader devuelve null y no se cachea: se acepta el token
+        Boolean activo = activos.get(key, this::consultarEstado);
+        return activo == null || activo;
+    }
+
+    /**
+     * Revoca los tokens emitidos hasta ahora para el usuario.
+     */
+    public void revoke(String tenant, String email) {
+        StatusKey key = new StatusKey(tenant, email);
+        revocaciones.put(key, Instant.now());
+        activos.invalidate(key);
+        log.info("[UserStatusService] Tokens revocados para {} en tenant {}", email, tenant);
+    }
+
+    /**
+     * Descarta el estado cacheado del usuario (por ejemplo tras modificarlo).
+     */
+    public void invalidate(String tenant, String email) {
+        activos.invalidate(new StatusKey(tenant, email));
+    }
+
+    @EventListener
+    public void onUsuarioTenantModificado(UsuarioTenantModificadoEvent event) {
+        String tenant = TenantContext.getCurrentTenant();
+        if (event.activo()) {
+            invalidate(tenant, event.email());
+        } else {
+            revoke(tenant, event.email());
+        }
+    }
+
+    /**
+     * Estado del usuario: activo y no bloqueado. Los usuarios administradores
+     * ({@code usuarios}) no tienen columnas de estado ni bloqueo: su única
+     * baja es la eliminación, que además revoca sus tokens al instante.
+     */
+    private Boolean consultarEstado(StatusKey key) {
+        try {
+            return TenantContext.callWithTenant(key.tenant(), () -> {
+                if (isAdminTenant(key.tenant())) {
+                    return usuarioRepository.findByEmail(key.email()).isPresent();
+                }
+                return usuarioRepositoryTenant.findByEmail(key.email())
+                        .map(u -> u.isEstado() && !Boolean.TRUE.equals(u.getBloqueado()))
+                        .orElse(false);
+            });
+        } catch (Exception e) {
+            log.warn("[UserStatusService] No se pudo consultar el estado de {} en {}: {}", key.email(), key.tenant(),
+                    e.getMessage());
+            return null;
+        }
+    }
+
+    private static boolean isAdminTenant(String tenant) {
+        return tenant == null || tenant.equalsIgnoreCase("default") || tenant.equalsIgnoreCase("cna");
+    }
+
+    private record StatusKey(String tenant, String email) {
+    }
+}
@@ -0,0 +1,55 @@
+package com.cna.facturita.security.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PublicRoutesTests {
+
+    @Test
+    void prefijoCubreLaRaizYTodasLasSubrutas() {
+        assertThat(PublicRoutes.isPublic("/auth")).isTrue();
+        assertThat(PublicRoutes.isPublic("/auth/login")).isTrue();
+        assertThat(PublicRoutes.isPublic("/api/auth/refresh/extra")).isTrue();
+        assertThat(PublicRoutes.isPublic("/swagger-ui/index.html")).isTrue();
+    }
+
+    @Test
+    void patronExactoNoCubreSubrutas() {
+        assertThat(PublicRoutes.isPublic("/swagger-ui.html")).isTrue();
+        assertThat(PublicRoutes.isPublic("/configuration/ui")).isTrue();
+        assertThat(PublicRoutes.isPublic("/configuration/ui/x")).isFalse();
+        assertThat(PublicRoutes.isPublic("/v2/api-docs/x")).isFalse();
+    }
+
+    @Test
+    void barraFinalSeIgnora() {
+        assertThat(PublicRoutes.isPublic("/v2/api-docs/")).isTrue();
+        assertThat(PublicRoutes.isPublic("/api/auth/")).isTrue();
+    }
+
+    @Test
+    void rutasProtegidasNoSonPublicas() {
+        assertThat(PublicRoutes.isPublic("/")).isFalse();
+        assertThat(PublicRoutes.isPublic("/api")).isFalse();
+        assertThat(PublicRoutes.isPublic("/api/planes")).isFalse();
+        assertThat(PublicRoutes.isPublic("/authx")).isFalse();
+        assertThat(PublicRoutes.isPublic("/configuration")).isFalse();
+        assertThat(PublicRoutes.isPublic((String) null)).isFalse();
+        assertThat(PublicRoutes.isPublic("")).isFalse();
+    }
+
+    @Test
+    void usaServletPathOPathInfo() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/login");
+        request.setServletPath("/api/auth/login");
+        assertThat(PublicRoutes.isPublic(request)).isTrue();
+        assertThat(PublicRoutes.matcher().matches(request)).isTrue();
+
+        MockHttpServletRequest conPathInfo = new MockHttpServletRequest("GET", "/api/planes");
+        conPathInfo.setServletPath("");
+        conPathInfo.setPathInfo("/api/planes");
+        assertThat(PublicRoutes.isPublic(conPathInfo)).isFalse();
+    }
+}
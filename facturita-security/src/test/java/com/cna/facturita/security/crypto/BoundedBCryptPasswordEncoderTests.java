@@ -0,0 +1,65 @@
+package com.cna.facturita.security.crypto;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BoundedBCryptPasswordEncoderTests {
+
+    private BoundedBCryptPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        if (encoder != null) {
+            encoder.shutdown();
+        }
+    }
+
+    @Test
+    void codificaYVerifica() {
+        encoder = encoder(0, 4, 4);
+
+        String hash = encoder.encode("secreto");
+
+        assertThat(encoder.matches("secreto", hash)).isTrue();
+        assertThat(encoder.matches("otro", hash)).isFalse();
+    }
+
+    @Test
+    void soloRecalculaHashesPorDebajoDelCostoMinimo() {
+        encoder = encoder(0, 5, 6);
+
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("x"))).isTrue();
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(5).encode("x"))).isFalse();
+        // Un hash de costo mayor al calibrado no se rebaja
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(7).encode("x"))).isFalse();
+    }
+
+    @Test
+    void conCostoFijoElPisoEsEseCosto() {
+        encoder = encoder(5, 4, 6);
+
+        assertThat(encoder.getStats().cost()).isEqualTo(5);
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("x"))).isTrue();
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("x"))).isFalse();
+        assertThat(encoder.upgradeEncoding("no-es-bcrypt")).isFalse();
+    }
+
+    private static BoundedBCryptPasswordEncoder encoder(int fixedCost, int minCost, int maxCost) {
+        BoundedBCryptPasswordEncoder encoder = new BoundedBCryptPasswordEncoder();
+        ReflectionTestUtils.setField(encoder, "fixedCost", fixedCost);
+        ReflectionTestUtils.setField(encoder, "minCost", minCost);
+        ReflectionTestUtils.setField(encoder, "maxCost", maxCost);
+        ReflectionTestUtils.setField(encoder, "targetLatency", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(encoder, "concurrency", 1);
+        ReflectionTestUtils.setField(encoder, "queueCapacity", 10);
+        ReflectionTestUtils.setField(encoder, "waitTimeout", Duration.ofSeconds(30));
+        encoder.init();
+        return encoder;
+    }
+}
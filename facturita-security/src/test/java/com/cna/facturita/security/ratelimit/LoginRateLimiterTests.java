@@ -0,0 +1,69 @@
+package com.cna.facturita.security.ratelimit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LoginRateLimiterTests {
+
+    private LoginRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        limiter = new LoginRateLimiter();
+        ReflectionTestUtils.setField(limiter, "enabled", true);
+        ReflectionTestUtils.setField(limiter, "window", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(limiter, "maxPorEmail", 2);
+        ReflectionTestUtils.setField(limiter, "maxPorIp", 3);
+        ReflectionTestUtils.setField(limiter, "maxKeys", 100L);
+        limiter.init();
+    }
+
+    @Test
+    void rechazoPorEmailNoConsumeElPermisoDeLaIp() {
+        limiter.check("t", "a@x.com", "1.1.1.1");
+        limiter.check("t", "A@x.com", "1.1.1.1");
+        assertThatThrownBy(() -> limiter.check("t", "a@x.com", "1.1.1.1"))
+                .isInstanceOf(LoginRateLimitedException.class);
+
+        // La IP solo consumió 2 de sus 3 permisos
+        limiter.check("t", "b@x.com", "1.1.1.1");
+        assertThatThrownBy(() -> limiter.check("t", "c@x.com", "1.1.1.1"))
+                .isInstanceOf(LoginRateLimitedException.class);
+    }
+
+    @Test
+    void loginExitosoNoCuenta() {
+        for (int i = 0; i < 5; i++) {
+            limiter.check("t", "a@x.com", "1.1.1.1");
+            limiter.onSuccess("t", "a@x.com", "1.1.1.1");
+        }
+
+        assertThat(limiter.getStats().porIp().permitidos()).isZero();
+    }
+
+    @Test
+    void clientesConIpsDistintasNoCompartenElLimite() {
+        limiter.check("t", "a@x.com", "1.1.1.1");
+        limiter.check("t", "b@x.com", "1.1.1.1");
+        limiter.check("t", "c@x.com", "1.1.1.1");
+        assertThatThrownBy(() -> limiter.check("t", "d@x.com", "1.1.1.1"))
+                .isInstanceOf(LoginRateLimitedException.class);
+
+        // Otro cliente del mismo tenant (con forward-headers-strategy, su IP real)
+        limiter.check("t", "d@x.com", "2.2.2.2");
+    }
+
+    @Test
+    void losLimitesSonPorTenant() {
+        limiter.check("t1", "a@x.com", "1.1.1.1");
+        limiter.check("t1", "a@x.com", "1.1.1.1");
+
+        limiter.check("t2", "a@x.com", "1.1.1.1");
+    }
+}
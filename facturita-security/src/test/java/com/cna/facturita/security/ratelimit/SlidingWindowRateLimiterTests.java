@@ -0,0 +1,81 @@
+package com.cna.facturita.security.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlidingWindowRateLimiterTests {
+
+    private static final long MINUTO = TimeUnit.MINUTES.toNanos(1);
+
+    @Test
+    void permiteHastaElLimiteYLuegoRechaza() {
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(3, Duration.ofMinutes(1), 100);
+
+        assertThat(limiter.tryAcquire("k", 0)).isZero();
+        assertThat(limiter.tryAcquire("k", 1)).isZero();
+        assertThat(limiter.tryAcquire("k", 2)).isZero();
+        assertThat(limiter.tryAcquire("k", 3)).isPositive();
+        assertThat(limiter.tryAcquire("otra", 3)).isZero();
+    }
+
+    @Test
+    void laVentanaAnteriorPesaSegunSuSolapamiento() {
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(4, Duration.ofMinutes(1), 100);
+        for (int i = 0; i < 4; i++) {
+            assertThat(limiter.tryAcquire("k", i)).isZero();
+        }
+
+        // A la mitad de la ventana siguiente aún cuentan 2 de los 4 intentos anteriores
+        long mitad = MINUTO + MINUTO / 2;
+        assertThat(limiter.tryAcquire("k", mitad)).isZero();
+        assertThat(limiter.tryAcquire("k", mitad)).isZero();
+        assertThat(limiter.tryAcquire("k", mitad)).isPositive();
+
+        // Dos ventanas después no queda nada
+        assertThat(limiter.tryAcquire("k", 3 * MINUTO)).isZero();
+    }
+
+    @Test
+    void releaseDevuelveElPermisoYResetOlvidaLaClave() {
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(1, Duration.ofMinutes(1), 100);
+
+        assertThat(limiter.tryAcquire("k", 0)).isZero();
+        limiter.release("k");
+        assertThat(limiter.tryAcquire("k", 1)).isZero();
+        assertThat(limiter.tryAcquire("k", 2)).isPositive();
+
+        limiter.reset("k");
+        assertThat(limiter.tryAcquire("k", 3)).isZero();
+    }
+
+    @Test
+    void nuncaSuperaElLimiteConAccesosConcurrentes() throws InterruptedException {
+        SlidingWindowRateLimiter limiter = new SlidingWindowRateLimiter(50, Duration.ofMinutes(10), 100);
+        AtomicInteger permitidos = new AtomicInteger();
+        CountDownLatch inicio = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 400; i++) {
+            executor.submit(() -> {
+                inicio.await();
+                if (limiter.tryAcquire("k") == 0) {
+                    permitidos.incrementAndGet();
+                }
+                return null;
+            });
+        }
+        inicio.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(permitidos.get()).isEqualTo(50);
+        assertThat(limiter.getStats().rechazados()).isEqualTo(350);
+    }
+}
@@ -0,0 +1,94 @@
+package com.cna.facturita.security.refresh;
+
+import com.cna.facturita.security.service.UserStatusService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RefreshTokenServiceTests {
+
+    private UserStatusService userStatusService;
+    private RefreshTokenService service;
+
+    @BeforeEach
+    void setUp() {
+        InMemoryRefreshTokenStore store = new InMemoryRefreshTokenStore();
+        ReflectionTestUtils.setField(store, "maxPerTenant", 100L);
+        ReflectionTestUtils.setField(store, "ttl", Duration.ofDays(14));
+
+        userStatusService = mock(UserStatusService.class);
+        when(userStatusService.isAllowed(anyString(), anyString(), any())).thenReturn(true);
+
+        service = new RefreshTokenService(store, userStatusService);
+        ReflectionTestUtils.setField(service, "ttl", Duration.ofDays(14));
+    }
+
+    @Test
+    void rotarEntregaUnTokenNuevoDeLaMismaFamilia() {
+        String inicial = service.issue("t", "a@x.com", 1, List.of("USER"));
+
+        Optional<RefreshTokenService.Rotation> rotacion = service.rotate("t", inicial);
+
+        assertThat(rotacion).isPresent();
+        assertThat(rotacion.get().nuevoToken()).isNotEqualTo(inicial);
+        assertThat(rotacion.get().anterior().email()).isEqualTo("a@x.com");
+
+        Optional<RefreshTokenService.Rotation> siguiente = service.rotate("t", rotacion.get().nuevoToken());
+        assertThat(siguiente).isPresent();
+        assertThat(siguiente.get().anterior().familia()).isEqualTo(rotacion.get().anterior().familia());
+    }
+
+    @Test
+    void reutilizarUnTokenRevocaLaFamilia() {
+        String inicial = service.issue("t", "a@x.com", 1, List.of("USER"));
+        String nuevo = service.rotate("t", inicial).orElseThrow().nuevoToken();
+
+        assertThat(service.rotate("t", inicial)).isEmpty();
+
+        // El token legítimo emitido en la rotación también queda invalidado
+        assertThat(service.rotate("t", nuevo)).isEmpty();
+    }
+
+    @Test
+    void tokenDeOtroTenantNoSeAcepta() {
+        String token = service.issue("t1", "a@x.com", 1, List.of("USER"));
+
+        assertThat(service.rotate("t2", token)).isEmpty();
+        assertThat(service.rotate("t1", token)).isPresent();
+    }
+
+    @Test
+    void logoutRevocaLaSesion() {
+        String token = service.issue("t", "a@x.com", 1, List.of("USER"));
+
+        service.revoke("t", token);
+
+        assertThat(service.rotate("t", token)).isEmpty();
+    }
+
+    @Test
+    void usuarioDesactivadoNoPuedeRotar() {
+        String token = service.issue("t", "a@x.com", 1, List.of("USER"));
+        when(userStatusService.isAllowed(anyString(), anyString(), any())).thenReturn(false);
+
+        assertThat(service.rotate("t", token)).isEmpty();
+    }
+
+    @Test
+    void tokenExpiradoNoSeAcepta() {
+        ReflectionTestUtils.setField(service, "ttl", Duration.ZERO);
+        String token = service.issue("t", "a@x.com", 1, List.of("USER"));
+
+        assertThat(service.rotate("t", token)).isEmpty();
+    }
+}